@@ -0,0 +1,70 @@
+package edgecoloring;
+
+// Graph families and algorithm configurations shared by the JMH benchmarks, selected by the names used in @Param
+public class BenchmarkGraphs {
+
+    // Graph families, parameterized by the number of vertices
+    public static Graph create(String family, int n, long seed) {
+        switch (family) {
+            case "sparse": return GraphGenerator.gnm(n, 8L * n, seed);
+            case "dense": return GraphGenerator.gnp(n, 0.2, seed);
+            case "bipartite": return GraphGenerator.bipartite(n, 0.2, seed);
+            case "regular": return GraphGenerator.regular(n, 32, seed);
+            case "regular-bipartite": return GraphGenerator.regularBipartite(n, 32, seed);
+            case "powerlaw": return GraphGenerator.powerLaw(n, 16, 2.5, seed);
+            case "grid": return GraphGenerator.grid((int) Math.sqrt(n), n / (int) Math.sqrt(n));
+            default: throw new IllegalArgumentException("Unknown graph family " + family);
+        }
+    }
+
+    // The graph relabeled by a vertex ordering, or the graph itself for none
+    public static Graph relabel(Graph graph, String ordering) {
+        switch (ordering) {
+            case "none": return graph;
+            case "degree": return VertexOrdering.of(graph, VertexOrdering.Strategy.DEGREE).getGraph();
+            case "bfs": return VertexOrdering.of(graph, VertexOrdering.Strategy.BFS).getGraph();
+            case "rcm": return VertexOrdering.of(graph, VertexOrdering.Strategy.REVERSE_CUTHILL_MCKEE).getGraph();
+            default: throw new IllegalArgumentException("Unknown vertex ordering " + ordering);
+        }
+    }
+
+    // Edge order from its parameter name, such as degree-descending
+    public static EdgeOrder edgeOrder(String name) {
+        return EdgeOrder.valueOf(name.toUpperCase().replace('-', '_'));
+    }
+
+    // Algorithms by name. The vizing and bipartite algorithms color the edges in edgeOrder, and seed drives every
+    // random choice.
+    public static EdgeColoringAlgorithm algorithm(String name, long seed, EdgeOrder edgeOrder) {
+        int threads = Runtime.getRuntime().availableProcessors();
+        switch (name) {
+            case "vizing": {
+                Vizing vizing = new Vizing();
+                vizing.setEdgeOrder(edgeOrder, seed);
+                return vizing;
+            }
+            case "randomized": return new RandomizedVizing(seed, 64);
+            case "multi-step": return new MultiStepVizing(seed);
+            case "parallel-vizing": return new ParallelVizing(threads);
+            case "near-linear": return new NearLinearVizing(seed);
+            case "bipartite": {
+                VizingBipartite bipartite = new VizingBipartite();
+                bipartite.setEdgeOrder(edgeOrder, seed);
+                return bipartite;
+            }
+            case "euler-bipartite": return new EulerBipartite(threads);
+            case "greedy": return new FastGreedy(0.1f);
+            case "greedy-random": return greedy(FastGreedy.Selection.RANDOM);
+            case "greedy-first-fit": return greedy(FastGreedy.Selection.FIRST_FIT);
+            case "greedy-repair": return new GreedyRepair();
+            case "euler-split": return new EulerSplitVizing(0.1f, seed, threads);
+            default: throw new IllegalArgumentException("Unknown algorithm " + name);
+        }
+    }
+
+    private static FastGreedy greedy(FastGreedy.Selection selection) {
+        FastGreedy greedy = new FastGreedy(0.1f);
+        greedy.setSelection(selection);
+        return greedy;
+    }
+}
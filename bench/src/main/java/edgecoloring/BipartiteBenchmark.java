@@ -0,0 +1,66 @@
+package edgecoloring;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+// Throughput of the Delta-edge coloring algorithms for bipartite graphs, on the bipartite graph families. Same scores
+// and parameters as ColoringBenchmark.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Fork(value = 2, jvmArgsAppend = {"-Xms2g", "-Xmx2g"})
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class BipartiteBenchmark {
+
+    @Param({"bipartite", "regular-bipartite", "grid"})
+    public String family;
+
+    @Param({"1000", "4000"})
+    public int n;
+
+    @Param({"bipartite", "euler-bipartite"})
+    public String algorithm;
+
+    // Vertex ordering applied to the graph before coloring: none, degree, bfs or rcm
+    @Param({"none"})
+    public String ordering;
+
+    // Edge order of the bipartite algorithm: natural, random, degree-descending, degeneracy or chunked-by-vertex
+    @Param({"natural"})
+    public String edgeOrder;
+
+    @Param({"1"})
+    public long seed;
+
+    private Graph graph;
+    private EdgeColoringAlgorithm instance;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        graph = BenchmarkGraphs.relabel(BenchmarkGraphs.create(family, n, seed), ordering);
+        if (!EulerBipartite.isBipartite(graph)) {
+            throw new IllegalArgumentException("Graph family " + family + " is not bipartite.");
+        }
+        instance = BenchmarkGraphs.algorithm(algorithm, seed, BenchmarkGraphs.edgeOrder(edgeOrder));
+    }
+
+    @Benchmark
+    public void color(ColoringBenchmark.Edges edges, Blackhole blackhole) {
+        blackhole.consume(instance.color(graph));
+        edges.edges += graph.m();
+    }
+}
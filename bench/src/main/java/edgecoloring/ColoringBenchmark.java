@@ -0,0 +1,85 @@
+package edgecoloring;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+// Throughput of the edge coloring algorithms on the graph families.
+//
+// Each invocation colors the whole graph from scratch. The colorings/s score is the throughput, and the secondary
+// "edges" score is the number of edges colored per second. The graph is generated once per trial, and may be relabeled
+// by a vertex ordering and colored in a given edge order (vizing only) to compare their speedups.
+//
+// Usage: java -jar bench/target/benchmarks.jar ColoringBenchmark -p family=sparse,powerlaw -p n=4000
+//                 -p algorithm=vizing,greedy [-p ordering=none,rcm] [-p edgeOrder=natural,degeneracy] [-prof gc]
+// The gc profiler adds the allocation rate and bytes allocated per coloring.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Fork(value = 2, jvmArgsAppend = {"-Xms2g", "-Xmx2g"})
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class ColoringBenchmark {
+
+    @Param({"sparse", "dense", "bipartite", "regular", "regular-bipartite", "powerlaw", "grid"})
+    public String family;
+
+    @Param({"1000", "4000"})
+    public int n;
+
+    @Param({"vizing", "randomized", "multi-step", "parallel-vizing", "near-linear", "greedy", "greedy-random",
+            "greedy-first-fit", "greedy-repair", "euler-split"})
+    public String algorithm;
+
+    // Vertex ordering applied to the graph before coloring: none, degree, bfs or rcm
+    @Param({"none"})
+    public String ordering;
+
+    // Edge order of the vizing algorithm: natural, random, degree-descending, degeneracy or chunked-by-vertex
+    @Param({"natural"})
+    public String edgeOrder;
+
+    @Param({"1"})
+    public long seed;
+
+    private Graph graph;
+    private EdgeColoringAlgorithm instance;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        graph = BenchmarkGraphs.relabel(BenchmarkGraphs.create(family, n, seed), ordering);
+        instance = BenchmarkGraphs.algorithm(algorithm, seed, BenchmarkGraphs.edgeOrder(edgeOrder));
+    }
+
+    @Benchmark
+    public void color(Edges edges, Blackhole blackhole) {
+        blackhole.consume(instance.color(graph));
+        edges.edges += graph.m();
+    }
+
+    // Number of edges colored, reported by JMH as a rate next to the primary score
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.OPERATIONS)
+    public static class Edges {
+
+        public long edges;
+
+        @Setup(Level.Iteration)
+        public void reset() {
+            edges = 0;
+        }
+    }
+}
@@ -0,0 +1,70 @@
+package edgecoloring;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+// Throughput of the primitives of the Vizing algorithms on a complete (Delta + 1)-coloring of each graph family:
+// flipping the alternating path of a random (missing, used) pair of colors at a random vertex, and uncoloring a random
+// edge and recoloring it with a Vizing fan. Both keep the coloring proper and complete, so the invocations of a trial
+// run on the same coloring.
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Fork(value = 2, jvmArgsAppend = {"-Xms2g", "-Xmx2g"})
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class PrimitiveBenchmark {
+
+    @Param({"sparse", "dense", "bipartite", "regular", "regular-bipartite", "powerlaw", "grid"})
+    public String family;
+
+    @Param({"1000", "4000"})
+    public int n;
+
+    @Param({"1"})
+    public long seed;
+
+    private Graph graph;
+    private EdgeColoring coloring;
+    private SplittableRandom rand;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        graph = BenchmarkGraphs.create(family, n, seed);
+        coloring = new Vizing().color(graph);
+        rand = new SplittableRandom(seed);
+    }
+
+    @Benchmark
+    public boolean flip() {
+        int vertex = rand.nextInt(graph.n());
+        if (graph.degree(vertex) == 0) {
+            return false;
+        }
+
+        // A (missing, used) pair of colors at the vertex always starts a non-empty path
+        int missing = coloring.getAnyMissingColor(vertex);
+        int used = coloring.getEdgeColor(graph.edgeId(vertex, rand.nextInt(graph.degree(vertex))));
+        return coloring.FlipAlternatingPath(vertex, missing, used);
+    }
+
+    @Benchmark
+    public boolean fan() {
+        int edgeId = rand.nextInt(graph.m());
+        coloring.uncolorEdge(edgeId);
+        return new VizingFan(graph.edgeU(edgeId), edgeId, coloring).activate();
+    }
+}
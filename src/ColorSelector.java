@@ -0,0 +1,123 @@
+import java.util.random.RandomGenerator;
+
+// Picks a color that is free at both endpoints of an edge by intersecting per-vertex bitsets of used colors, instead
+// of sampling colors until one is free.
+//
+// An uncolored edge (u, v) has at most deg(u) - 1 + deg(v) - 1 colored edges around it, so some color in
+// [1, deg(u) + deg(v) - 1] is free at both endpoints, and the selector only looks there. Each vertex u keeps a bitset of
+// its used colors in [1, deg(u) + d - 1], where d is the largest degree of its neighbors, which covers the candidates of
+// every edge at u, and the two bitsets are intersected a 64-bit word at a time. A selection therefore takes
+// O((deg(u) + deg(v)) / 64) time in the worst case, however saturated the vertices are. Used colors above the range of
+// a vertex are never candidates at that vertex, so they are not recorded.
+public class ColorSelector {
+
+    // The bits of vertex u are words[start[u]] ... words[start[u + 1] - 1], bit j of word i for color 64 * i + j + 1
+    private final int[] start;
+    private final long[] words;
+
+    private final Graph graph;
+    private final int maxColor;
+
+    public ColorSelector(Graph graph, int maxColor) {
+
+        this.graph = graph;
+        this.maxColor = maxColor;
+
+        int n = graph.n();
+        this.start = new int[n + 1];
+        for (int u = 0; u < n; u++) {
+            int maxNeighborDegree = 0;
+            for (int i = 0; i < graph.degree(u); i++) {
+                maxNeighborDegree = Math.max(maxNeighborDegree, graph.degree(graph.neighbor(u, i)));
+            }
+            long range = Math.min(maxColor, (long) graph.degree(u) + maxNeighborDegree - 1);
+            long end = start[u] + (Math.max(0, range) + 63) / 64;
+            if (end > Integer.MAX_VALUE - 8) {
+                throw new IllegalArgumentException("Color bitsets do not fit in an array.");
+            }
+            start[u + 1] = (int) end;
+        }
+        this.words = new long[start[n]];
+    }
+
+    // Creates a selector that knows the colors already used in the coloring
+    public static ColorSelector of(EdgeColoring coloring) {
+        Graph graph = coloring.getGraph();
+        ColorSelector selector = new ColorSelector(graph, coloring.maxColor());
+        for (int edgeId = 0; edgeId < graph.m(); edgeId++) {
+            int color = coloring.getEdgeColor(edgeId);
+            if (color != 0) {
+                selector.markUsed(graph.edgeU(edgeId), color);
+                selector.markUsed(graph.edgeV(edgeId), color);
+            }
+        }
+        return selector;
+    }
+
+    // Records that color is used at vertex. Only touches the bits of vertex, so distinct vertices may be updated
+    // concurrently.
+    public void markUsed(int vertex, int color) {
+        int word = (color - 1) >>> 6;
+        if (word < start[vertex + 1] - start[vertex]) {
+            words[start[vertex] + word] |= 1L << (color - 1);
+        }
+    }
+
+    // Returns the smallest color free at both u and v, or 0 if there is none
+    public int firstFit(int u, int v) {
+        int limit = limit(u, v);
+        int count = (limit + 63) >>> 6;
+        for (int w = 0; w < count; w++) {
+            long free = free(u, v, w, limit);
+            if (free != 0) {
+                return (w << 6) + Long.numberOfTrailingZeros(free) + 1;
+            }
+        }
+        return 0;
+    }
+
+    // Returns a color chosen uniformly at random among the colors in [1, deg(u) + deg(v) - 1] free at both u and v,
+    // or 0 if there is none
+    public int random(int u, int v, RandomGenerator rand) {
+        int limit = limit(u, v);
+        int count = (limit + 63) >>> 6;
+
+        int total = 0;
+        for (int w = 0; w < count; w++) {
+            total += Long.bitCount(free(u, v, w, limit));
+        }
+        if (total == 0) {
+            return 0;
+        }
+
+        // Find the kth free color
+        int k = rand.nextInt(total);
+        for (int w = 0; w < count; w++) {
+            long free = free(u, v, w, limit);
+            int bits = Long.bitCount(free);
+            if (k < bits) {
+                for (; k > 0; k--) {
+                    free &= free - 1;
+                }
+                return (w << 6) + Long.numberOfTrailingZeros(free) + 1;
+            }
+            k -= bits;
+        }
+        throw new IllegalStateException("Free color not found. This should not happen if the algorithm is correct.");
+    }
+
+    // Largest candidate color of the edge (u, v)
+    private int limit(int u, int v) {
+        return (int) Math.min(maxColor, (long) graph.degree(u) + graph.degree(v) - 1);
+    }
+
+    // The wth word of the colors free at both u and v, restricted to [1, limit]
+    private long free(int u, int v, int w, int limit) {
+        long used = words[start[u] + w] | words[start[v] + w];
+        long free = ~used;
+        if (w == (limit - 1) >>> 6 && (limit & 63) != 0) {
+            free &= (1L << (limit & 63)) - 1;
+        }
+        return free;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,314 @@
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+
+// Saves and loads edge colorings in a compact binary format.
+//
+// The file starts with a little-endian header:
+//   int  magic ("ECOL")      int  version
+//   int  n                   int  m
+//   int  maxColor            int  bits per color
+//   long graph fingerprint   long number of colored edges
+// followed by the colors of the edges in edge id order, packed into little-endian 64-bit words with 'bits per color'
+// bits each, the smallest number of bits that holds [0, maxColor]. Edge ids are the implicit position of each color,
+// and 0 stores an uncolored edge, so partial colorings are saved as they are. The packed colors are written and read
+// through memory-mapped segments, and a file is always written to a temporary sibling that is then moved over the
+// target, so a crash never leaves a truncated file behind.
+//
+// The fingerprint identifies the graph by its edges, so that a coloring is never loaded onto a different graph with
+// the same number of vertices and edges.
+public class ColoringIO {
+
+    private static final int MAGIC = 0x4C4F4345;
+    private static final int VERSION = 1;
+    private static final int HEADER_BYTES = 40;
+
+    // Largest number of bytes mapped for a single segment, a multiple of 8 so that words never straddle segments
+    private static final long MAX_SEGMENT_BYTES = 1L << 30;
+
+    // Saves the coloring, replacing the file if it exists
+    public static void write(EdgeColoring coloring, Path path) throws IOException {
+
+        Graph graph = coloring.getGraph();
+        int m = graph.m();
+        int bits = bitsPerColor(coloring.maxColor());
+        long words = ((long) m * bits + 63) / 64;
+
+        long colored = 0;
+        for (int edgeId = 0; edgeId < m; edgeId++) {
+            if (coloring.getEdgeColor(edgeId) != 0) {
+                colored++;
+            }
+        }
+
+        ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+        header.putInt(MAGIC).putInt(VERSION).putInt(graph.n()).putInt(m);
+        header.putInt(coloring.maxColor()).putInt(bits).putLong(fingerprint(graph)).putLong(colored);
+        header.flip();
+
+        Path temp = path.resolveSibling(path.getFileName() + ".tmp");
+        try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING,
+                StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+
+            while (header.hasRemaining()) {
+                channel.write(header, HEADER_BYTES - header.remaining());
+            }
+
+            WordWriter out = new WordWriter(channel, HEADER_BYTES, words);
+            long word = 0;
+            int filled = 0;
+            for (int edgeId = 0; edgeId < m; edgeId++) {
+                long color = coloring.getEdgeColor(edgeId);
+                word |= color << filled;
+                filled += bits;
+                if (filled >= 64) {
+                    out.put(word);
+                    filled -= 64;
+                    word = (filled > 0) ? color >>> (bits - filled) : 0;
+                }
+            }
+            if (filled > 0) {
+                out.put(word);
+            }
+            out.close();
+
+            // The header and any data not flushed with the mapped segments must be on disk before the file is moved
+            // over the target, or a crash could leave a renamed but incomplete file
+            channel.force(true);
+        }
+
+        try {
+            Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    // Loads a coloring of the graph, with the number of colors it was saved with
+    public static EdgeColoring read(Graph graph, Path path) throws IOException {
+        return read(graph, path, -1);
+    }
+
+    // Loads a coloring of the graph that must have been saved with maxColor colors (maxColor < 0 for any)
+    public static EdgeColoring read(Graph graph, Path path, int maxColor) throws IOException {
+        return read(graph, path, maxColor, null);
+    }
+
+    // Loads a coloring into off-heap storage (null for the heap)
+    public static EdgeColoring read(Graph graph, Path path, int maxColor, OffHeapStorage storage) throws IOException {
+
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+
+            if (channel.size() < HEADER_BYTES) {
+                throw new IllegalArgumentException("File " + path + " is too short to hold an edge coloring.");
+            }
+
+            ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+            while (header.hasRemaining()) {
+                if (channel.read(header, header.position()) < 0) {
+                    throw new IllegalArgumentException("File " + path + " is too short to hold an edge coloring.");
+                }
+            }
+            header.flip();
+
+            if (header.getInt() != MAGIC) {
+                throw new IllegalArgumentException("File " + path + " is not an edge coloring.");
+            }
+            int version = header.getInt();
+            if (version != VERSION) {
+                throw new IllegalArgumentException("Unsupported edge coloring version " + version + ".");
+            }
+            int n = header.getInt();
+            int m = header.getInt();
+            int savedMaxColor = header.getInt();
+            int bits = header.getInt();
+            long fingerprint = header.getLong();
+
+            if (n != graph.n() || m != graph.m() || fingerprint != fingerprint(graph)) {
+                throw new IllegalArgumentException("Edge coloring in " + path + " was saved for a different graph.");
+            }
+            if (maxColor >= 0 && savedMaxColor != maxColor) {
+                throw new IllegalArgumentException("Edge coloring in " + path + " uses " + savedMaxColor + " colors instead of " + maxColor + ".");
+            }
+            if (savedMaxColor < 1 || bits != bitsPerColor(savedMaxColor)) {
+                throw new IllegalArgumentException("Edge coloring in " + path + " has an invalid header.");
+            }
+
+            long words = ((long) m * bits + 63) / 64;
+            if (channel.size() != HEADER_BYTES + 8 * words) {
+                throw new IllegalArgumentException("Edge coloring in " + path + " has " + channel.size() + " bytes instead of " + (HEADER_BYTES + 8 * words) + ".");
+            }
+
+            EdgeColoring coloring = new EdgeColoring(graph, savedMaxColor, storage);
+            WordReader in = new WordReader(channel, HEADER_BYTES, words);
+            long mask = (1L << bits) - 1;
+            long word = 0;
+            int available = 0;
+            for (int edgeId = 0; edgeId < m; edgeId++) {
+                int color;
+                if (available >= bits) {
+                    color = (int) (word & mask);
+                    word >>>= bits;
+                    available -= bits;
+                } else {
+                    long next = in.get();
+                    color = (int) ((word | (next << available)) & mask);
+                    int needed = bits - available;
+                    word = next >>> needed;
+                    available = 64 - needed;
+                }
+
+                if (color != 0 && !coloring.setEdgeColor(edgeId, color)) {
+                    throw new IllegalArgumentException("Edge coloring in " + path + " is not proper at edge " + edgeId + ".");
+                }
+            }
+
+            return coloring;
+        }
+    }
+
+    // Get a hash of the edges of the graph
+    public static long fingerprint(Graph graph) {
+        long hash = 0x9E3779B97F4A7C15L * (graph.n() + 1) ^ graph.m();
+        for (int edgeId = 0; edgeId < graph.m(); edgeId++) {
+            long edge = ((long) graph.edgeU(edgeId) << 32) | graph.edgeV(edgeId);
+            hash = Long.rotateLeft(hash ^ mix(edge + edgeId), 27) * 0x94D049BB133111EBL;
+        }
+        return mix(hash);
+    }
+
+    // Number of bits needed to store the colors [0, maxColor]
+    static int bitsPerColor(int maxColor) {
+        return Math.max(1, 32 - Integer.numberOfLeadingZeros(maxColor));
+    }
+
+    private static long mix(long z) {
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+
+    // Writes consecutive 64-bit words through mapped segments of the file
+    static class WordWriter {
+
+        private final FileChannel channel;
+        private long position;
+        private long remaining;
+        private MappedByteBuffer buffer;
+
+        WordWriter(FileChannel channel, long position, long words) {
+            this.channel = channel;
+            this.position = position;
+            this.remaining = 8 * words;
+        }
+
+        void put(long word) throws IOException {
+            if (buffer == null || !buffer.hasRemaining()) {
+                close();
+                long size = Math.min(remaining, MAX_SEGMENT_BYTES);
+                buffer = channel.map(FileChannel.MapMode.READ_WRITE, position, size);
+                buffer.order(ByteOrder.LITTLE_ENDIAN);
+                position += size;
+                remaining -= size;
+            }
+            buffer.putLong(word);
+        }
+
+        // Flushes the last segment to the file
+        void close() {
+            if (buffer != null) {
+                buffer.force();
+            }
+        }
+    }
+
+    // Reads consecutive 64-bit words through mapped segments of the file
+    static class WordReader {
+
+        private final FileChannel channel;
+        private long position;
+        private long remaining;
+        private MappedByteBuffer buffer;
+
+        WordReader(FileChannel channel, long position, long words) {
+            this.channel = channel;
+            this.position = position;
+            this.remaining = 8 * words;
+        }
+
+        long get() throws IOException {
+            if (buffer == null || !buffer.hasRemaining()) {
+                long size = Math.min(remaining, MAX_SEGMENT_BYTES);
+                buffer = channel.map(FileChannel.MapMode.READ_ONLY, position, size);
+                buffer.order(ByteOrder.LITTLE_ENDIAN);
+                position += size;
+                remaining -= size;
+            }
+            return buffer.getLong();
+        }
+    }
+}
+
+// Periodically saves the partial coloring of a running algorithm, so that an interrupted run can resume from it
+class ColoringCheckpoint {
+
+    private final Path path;
+    private final long intervalNanos;
+    private long lastSave;
+
+    ColoringCheckpoint(Path path, long intervalMillis) {
+        if (intervalMillis < 0) {
+            throw new IllegalArgumentException("Checkpoint interval must be non-negative.");
+        }
+        this.path = path;
+        this.intervalNanos = intervalMillis * 1000000L;
+    }
+
+    // Get the coloring saved by an interrupted run if there is one, and an empty coloring otherwise, in storage
+    // (null for the heap)
+    EdgeColoring resume(Graph graph, int maxColor, OffHeapStorage storage) {
+        lastSave = System.nanoTime();
+        if (!Files.exists(path)) {
+            return new EdgeColoring(graph, maxColor, storage);
+        }
+        try {
+            return ColoringIO.read(graph, path, maxColor, storage);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    // Saves the coloring if the interval has passed since the last save. Must only be called when no edge is being
+    // colored, so that the saved coloring is proper.
+    void tick(EdgeColoring coloring) {
+        if (System.nanoTime() - lastSave >= intervalNanos) {
+            save(coloring);
+        }
+    }
+
+    void save(EdgeColoring coloring) {
+        try {
+            ColoringIO.write(coloring, path);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        lastSave = System.nanoTime();
+    }
+
+    // Removes the checkpoint once the run completed
+    void finish() {
+        try {
+            Files.deleteIfExists(path);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,343 @@
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+import jdk.jfr.Category;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+// Opt-in instrumentation of the hot paths of the coloring algorithms.
+//
+// Records histograms of alternating path lengths, fan sizes and greedy retries per edge, counts of flips and fan
+// rotations, and the wall time of each phase of a run (construction, coloring, validation), and the edge order of the
+// run. All counters are striped LongAdders, so recording is a few uncontended increments even when many threads color
+// at the same time, and a run without metrics only pays a null check. A snapshot can be exported as JSON, and phases
+// and summaries are emitted as JFR events when a flight recording is active.
+//
+// Usage: ColoringMetrics metrics = new ColoringMetrics();
+//        vizing.setMetrics(metrics);
+//        vizing.color(graph).isValid(false);
+//        System.out.println(metrics.toJson());
+public class ColoringMetrics {
+
+    // Names of the standard phases
+    public static final String CONSTRUCTION = "construction";
+    public static final String COLORING = "coloring";
+    public static final String VALIDATION = "validation";
+    public static final String REPAIR = "repair";
+    public static final String ORDERING = "ordering";
+
+    // Length of every flipped alternating path, in edges
+    private final Histogram pathLength = new Histogram();
+
+    // Number of leaves of every constructed fan
+    private final Histogram fanSize = new Histogram();
+
+    // Number of rejected color samples (or rounds) before an edge was colored greedily
+    private final Histogram greedyRetries = new Histogram();
+
+    private final LongAdder flips = new LongAdder();
+    private final LongAdder rotations = new LongAdder();
+
+    // Time spent in each phase
+    private final Map<String, PhaseTimer> phases = new ConcurrentSkipListMap<>();
+
+    // Edge order of the last run that reported one, null if none did
+    private volatile String edgeOrder;
+
+    public void recordFlip(int length) {
+        flips.increment();
+        pathLength.record(length);
+    }
+
+    public void recordFan(int size) {
+        fanSize.record(size);
+    }
+
+    public void recordRotations(int count) {
+        if (count > 0) {
+            rotations.add(count);
+        }
+    }
+
+    public void recordGreedyRetries(int retries) {
+        greedyRetries.record(retries);
+    }
+
+    public void recordEdgeOrder(String name) {
+        edgeOrder = name;
+    }
+
+    public void recordPhase(String name, long nanos) {
+        phases.computeIfAbsent(name, key -> new PhaseTimer()).record(nanos);
+    }
+
+    // Starts timing a phase, to be closed when the phase ends. Returns null if metrics is null, which a
+    // try-with-resources statement accepts, so callers do not need to check whether metrics are enabled.
+    public static Phase phase(ColoringMetrics metrics, String name) {
+        return (metrics == null) ? null : new Phase(metrics, name);
+    }
+
+    public Histogram getPathLength() {
+        return pathLength;
+    }
+
+    public Histogram getFanSize() {
+        return fanSize;
+    }
+
+    public Histogram getGreedyRetries() {
+        return greedyRetries;
+    }
+
+    public long getFlips() {
+        return flips.sum();
+    }
+
+    public long getRotations() {
+        return rotations.sum();
+    }
+
+    // Get the edge order of the last run that reported one, null if none did
+    public String getEdgeOrder() {
+        return edgeOrder;
+    }
+
+    // Get the total time spent in a phase in nanoseconds, 0 if it was never recorded
+    public long getPhaseNanos(String name) {
+        PhaseTimer timer = phases.get(name);
+        return (timer == null) ? 0 : timer.nanos.sum();
+    }
+
+    public void reset() {
+        pathLength.reset();
+        fanSize.reset();
+        greedyRetries.reset();
+        flips.reset();
+        rotations.reset();
+        phases.clear();
+        edgeOrder = null;
+    }
+
+    // Emits a JFR event with a summary of the counters, if a recording is active
+    public void emitSummaryEvent() {
+        SummaryEvent event = new SummaryEvent();
+        if (!event.shouldCommit()) {
+            return;
+        }
+        event.flips = getFlips();
+        event.rotations = getRotations();
+        event.fans = fanSize.getCount();
+        event.meanPathLength = pathLength.getMean();
+        event.maxPathLength = pathLength.getMax();
+        event.meanFanSize = fanSize.getMean();
+        event.maxFanSize = fanSize.getMax();
+        event.meanGreedyRetries = greedyRetries.getMean();
+        event.maxGreedyRetries = greedyRetries.getMax();
+        event.coloringNanos = getPhaseNanos(COLORING);
+        event.edgeOrder = edgeOrder;
+        event.commit();
+    }
+
+    // Get a JSON snapshot of the metrics
+    public String toJson() {
+        StringBuilder json = new StringBuilder();
+        json.append("{\"counters\":{\"flips\":").append(getFlips());
+        json.append(",\"rotations\":").append(getRotations());
+        json.append(",\"fans\":").append(fanSize.getCount()).append("}");
+        json.append(",\"histograms\":{\"pathLength\":");
+        pathLength.appendJson(json);
+        json.append(",\"fanSize\":");
+        fanSize.appendJson(json);
+        json.append(",\"greedyRetries\":");
+        greedyRetries.appendJson(json);
+        json.append("},\"phases\":{");
+        boolean first = true;
+        for (Map.Entry<String, PhaseTimer> entry : phases.entrySet()) {
+            if (!first) {
+                json.append(",");
+            }
+            first = false;
+            json.append("\"").append(entry.getKey()).append("\":{\"count\":").append(entry.getValue().count.sum());
+            json.append(",\"nanos\":").append(entry.getValue().nanos.sum()).append("}");
+        }
+        json.append("}");
+        if (edgeOrder != null) {
+            json.append(",\"edgeOrder\":\"").append(edgeOrder).append("\"");
+        }
+        json.append("}");
+        return json.toString();
+    }
+
+    @Override
+    public String toString() {
+        return toJson();
+    }
+
+    // Histogram of non-negative values with power-of-two buckets: bucket 0 holds 0, and bucket b > 0 holds the
+    // values in [2^(b - 1), 2^b - 1]
+    public static class Histogram {
+
+        private static final int BUCKETS = 64;
+
+        private final LongAdder[] buckets = new LongAdder[BUCKETS];
+        private final LongAdder count = new LongAdder();
+        private final LongAdder sum = new LongAdder();
+        private final LongAccumulator max = new LongAccumulator(Math::max, 0);
+
+        Histogram() {
+            for (int b = 0; b < BUCKETS; b++) {
+                buckets[b] = new LongAdder();
+            }
+        }
+
+        public void record(long value) {
+            value = Math.max(0, value);
+            buckets[BUCKETS - Long.numberOfLeadingZeros(value)].increment();
+            count.increment();
+            sum.add(value);
+            max.accumulate(value);
+        }
+
+        public long getCount() {
+            return count.sum();
+        }
+
+        public long getSum() {
+            return sum.sum();
+        }
+
+        public long getMax() {
+            return max.get();
+        }
+
+        public double getMean() {
+            long n = getCount();
+            return (n == 0) ? 0 : (double) getSum() / n;
+        }
+
+        // Get the number of recorded values in a bucket
+        public long getBucket(int b) {
+            return buckets[b].sum();
+        }
+
+        // Get the largest value of a bucket
+        public static long bucketUpperBound(int b) {
+            return (b == 0) ? 0 : (b == BUCKETS - 1) ? Long.MAX_VALUE : (1L << b) - 1;
+        }
+
+        void reset() {
+            for (LongAdder bucket : buckets) {
+                bucket.reset();
+            }
+            count.reset();
+            sum.reset();
+            max.reset();
+        }
+
+        void appendJson(StringBuilder json) {
+            json.append("{\"count\":").append(getCount());
+            json.append(",\"sum\":").append(getSum());
+            json.append(",\"max\":").append(getMax());
+            json.append(",\"mean\":").append(String.format(Locale.ROOT, "%.3f", getMean()));
+            json.append(",\"buckets\":[");
+            boolean first = true;
+            for (int b = 0; b < BUCKETS; b++) {
+                long c = getBucket(b);
+                if (c == 0) {
+                    continue;
+                }
+                if (!first) {
+                    json.append(",");
+                }
+                first = false;
+                json.append("{\"le\":").append(bucketUpperBound(b)).append(",\"count\":").append(c).append("}");
+            }
+            json.append("]}");
+        }
+    }
+
+    static class PhaseTimer {
+
+        final LongAdder count = new LongAdder();
+        final LongAdder nanos = new LongAdder();
+
+        void record(long elapsed) {
+            count.increment();
+            nanos.add(elapsed);
+        }
+    }
+
+    // A running phase, recorded when closed, and also emitted as a JFR event if a recording is active
+    public static class Phase implements AutoCloseable {
+
+        private final ColoringMetrics metrics;
+        private final PhaseEvent event;
+        private final long start;
+
+        Phase(ColoringMetrics metrics, String name) {
+            this.metrics = metrics;
+            this.event = new PhaseEvent();
+            this.event.phase = name;
+            this.event.begin();
+            this.start = System.nanoTime();
+        }
+
+        @Override
+        public void close() {
+            metrics.recordPhase(event.phase, System.nanoTime() - start);
+            event.commit();
+        }
+    }
+
+    @Name("coloring.Phase")
+    @Label("Coloring Phase")
+    @Category("Edge Coloring")
+    public static class PhaseEvent extends Event {
+
+        @Label("Phase")
+        String phase;
+    }
+
+    @Name("coloring.Summary")
+    @Label("Coloring Metrics Summary")
+    @Category("Edge Coloring")
+    public static class SummaryEvent extends Event {
+
+        @Label("Flips")
+        long flips;
+
+        @Label("Rotations")
+        long rotations;
+
+        @Label("Fans")
+        long fans;
+
+        @Label("Mean Path Length")
+        double meanPathLength;
+
+        @Label("Max Path Length")
+        long maxPathLength;
+
+        @Label("Mean Fan Size")
+        double meanFanSize;
+
+        @Label("Max Fan Size")
+        long maxFanSize;
+
+        @Label("Mean Greedy Retries")
+        double meanGreedyRetries;
+
+        @Label("Max Greedy Retries")
+        long maxGreedyRetries;
+
+        @Label("Coloring Time (ns)")
+        long coloringNanos;
+
+        @Label("Edge Order")
+        String edgeOrder;
+    }
+}
\ No newline at end of file
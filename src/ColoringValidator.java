@@ -0,0 +1,216 @@
+import java.util.SplittableRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+
+// Checks that an edge coloring is proper and complete.
+//
+// Every vertex is checked independently: its incident edges must all be colored with colors in [1, maxColor], no two
+// of them may share a color, and the vertex/color table of the coloring must map each color back to its edge. The
+// vertices are checked in parallel chunks, and each thread marks the colors seen at a vertex in a reusable stamp array,
+// so the check allocates nothing per vertex or edge. Properness and completeness are tracked separately, so an
+// uncolored edge does not hide a conflict elsewhere. The first offending vertex (the smallest, in the full mode) is
+// reported with the edges involved, a vertex with a conflict before a vertex with an uncolored edge. The sampled mode
+// only checks a random subset of distinct vertices, as a cheap spot check of large colorings.
+public class ColoringValidator {
+
+    // Number of vertices checked by a task at a time
+    private static final int CHUNK_SIZE = 4096;
+
+    // Checks every vertex of the coloring
+    public static Result validate(EdgeColoring coloring) {
+        Graph graph = coloring.getGraph();
+        return check(coloring, graph.n(), k -> k);
+    }
+
+    // Checks a uniformly random sample of about 'fraction' of the vertices without replacement, reproducibly for a given seed
+    public static Result validateSample(EdgeColoring coloring, double fraction, long seed) {
+
+        if (fraction < 0 || fraction > 1) {
+            throw new IllegalArgumentException("Sample fraction must be between 0 and 1");
+        }
+
+        int n = coloring.getGraph().n();
+        int samples = (int) Math.min(n, Math.ceil(fraction * n));
+        if (samples == n) {
+            return validate(coloring);
+        }
+
+        // Partial Fisher-Yates shuffle of the identity permutation, where only the displaced entries are stored so that
+        // the sample takes O(samples) time and space
+        int[] vertices = new int[samples];
+        LongIntHashMap displaced = new LongIntHashMap(2 * samples);
+        SplittableRandom rand = new SplittableRandom(seed);
+        for (int k = 0; k < samples; k++) {
+            int j = k + rand.nextInt(n - k);
+            vertices[k] = displaced.get(j, j);
+            displaced.put(j, displaced.get(k, k));
+        }
+        return check(coloring, samples, k -> vertices[k]);
+    }
+
+    private interface VertexSource {
+        int vertex(int k);
+    }
+
+    private static Result check(EdgeColoring coloring, int count, VertexSource source) {
+
+        Graph graph = coloring.getGraph();
+        int maxColor = coloring.maxColor();
+
+        // Per-thread scratch: for each color, the stamp of the vertex that saw it last and the edge that had it
+        ThreadLocal<int[][]> scratch = ThreadLocal.withInitial(() -> new int[][] {new int[maxColor + 1], new int[maxColor + 1]});
+
+        // Smallest indices (in the order of the source) of a vertex with a conflict and of a vertex with an uncolored
+        // edge found so far, a chunk stops once neither can move to an earlier vertex
+        AtomicInteger firstImproper = new AtomicInteger(Integer.MAX_VALUE);
+        AtomicInteger firstIncomplete = new AtomicInteger(Integer.MAX_VALUE);
+
+        IntStream.range(0, (count + CHUNK_SIZE - 1) / CHUNK_SIZE).parallel().forEach(chunk -> {
+            int[][] buffers = scratch.get();
+            int end = Math.min(count, (chunk + 1) * CHUNK_SIZE);
+            for (int k = chunk * CHUNK_SIZE; k < end && (k < firstImproper.get() || k < firstIncomplete.get()); k++) {
+                Result problem = checkVertex(coloring, graph, maxColor, source.vertex(k), buffers[0], buffers[1], null);
+                if (problem != null && !problem.proper) {
+                    firstImproper.accumulateAndGet(k, Math::min);
+                }
+                if (problem != null && !problem.complete) {
+                    firstIncomplete.accumulateAndGet(k, Math::min);
+                }
+            }
+        });
+
+        boolean proper = firstImproper.get() == Integer.MAX_VALUE;
+        boolean complete = firstIncomplete.get() == Integer.MAX_VALUE;
+        if (proper && complete) {
+            return new Result(true, true, -1, new int[0], count);
+        }
+
+        // Recompute the details of the first offending vertex
+        Result[] result = new Result[1];
+        int[][] buffers = scratch.get();
+        checkVertex(coloring, graph, maxColor, source.vertex(proper ? firstIncomplete.get() : firstImproper.get()), buffers[0], buffers[1], result);
+        return new Result(proper, complete, result[0].vertex, result[0].edges, count);
+    }
+
+    // Checks the edges at a vertex, returns null if they are fine, and otherwise a (partial) description of the
+    // problem, stored in details[0] if details is not null. All the edges are checked, so the result tells both
+    // whether the vertex is proper and whether it is complete, and its edges describe the conflict if there is one.
+    private static Result checkVertex(EdgeColoring coloring, Graph graph, int maxColor, int u, int[] stamp, int[] edgeOfColor, Result[] details) {
+
+        int[] conflict = null;
+        int uncolored = -1;
+        int degree = graph.degree(u);
+
+        for (int i = 0; i < degree; i++) {
+            int edgeId = graph.edgeId(u, i);
+            int color = coloring.getEdgeColor(edgeId);
+
+            if (color == 0) {
+                if (uncolored < 0) {
+                    uncolored = edgeId;
+                }
+            } else if (color < 0 || color > maxColor) {
+                if (conflict == null) {
+                    conflict = new int[] {edgeId};
+                }
+            } else if (stamp[color] == u + 1) {
+                if (conflict == null) {
+                    conflict = new int[] {edgeOfColor[color], edgeId};
+                }
+            } else {
+                stamp[color] = u + 1;
+                edgeOfColor[color] = edgeId;
+            }
+        }
+
+        // With distinct colors, the vertex/color table must point back at each colored edge
+        for (int i = 0; i < degree && conflict == null; i++) {
+            int edgeId = graph.edgeId(u, i);
+            int color = coloring.getEdgeColor(edgeId);
+            if (color != 0 && coloring.getEdgeIdWithColorAtVertex(u, color) != edgeId) {
+                conflict = new int[] {edgeId};
+            }
+        }
+
+        Result problem = null;
+        if (conflict != null) {
+            problem = new Result(false, uncolored < 0, u, conflict, 1);
+        } else if (uncolored >= 0) {
+            problem = new Result(true, false, u, new int[] {uncolored}, 1);
+        }
+
+        // Stamps are vertex ids, so they must be cleared before the thread sees this vertex again
+        for (int i = 0; i < degree; i++) {
+            int color = coloring.getEdgeColor(graph.edgeId(u, i));
+            if (color > 0 && color <= maxColor) {
+                stamp[color] = 0;
+            }
+        }
+
+        if (details != null) {
+            details[0] = problem;
+        }
+        return problem;
+    }
+
+    // Outcome of a check. If the coloring is not valid, vertex is the first offending vertex, and edges holds the
+    // uncolored edge, the edge with an invalid color or inconsistent entry, or the two edges sharing a color.
+    public static class Result {
+
+        final boolean proper;
+        final boolean complete;
+        final int vertex;
+        final int[] edges;
+        final int checkedVertices;
+
+        Result(boolean proper, boolean complete, int vertex, int[] edges, int checkedVertices) {
+            this.proper = proper;
+            this.complete = complete;
+            this.vertex = vertex;
+            this.edges = edges;
+            this.checkedVertices = checkedVertices;
+        }
+
+        // No two edges at a checked vertex share a color, and every color is consistent and in range
+        public boolean isProper() {
+            return proper;
+        }
+
+        // Every edge at a checked vertex is colored
+        public boolean isComplete() {
+            return complete;
+        }
+
+        public boolean isValid() {
+            return proper && complete;
+        }
+
+        // Get the first offending vertex, or -1 if the coloring is valid
+        public int getVertex() {
+            return vertex;
+        }
+
+        // Get the ids of the offending edges
+        public int[] getEdges() {
+            return edges;
+        }
+
+        // Get the number of vertices checked
+        public int getCheckedVertices() {
+            return checkedVertices;
+        }
+
+        @Override
+        public String toString() {
+            if (isValid()) {
+                return "Edge coloring (valid: true, complete: true, checked vertices: " + checkedVertices + ")";
+            }
+            StringBuilder edgeList = new StringBuilder();
+            for (int e : edges) {
+                edgeList.append((edgeList.length() == 0) ? "" : ", ").append(e);
+            }
+            return "Edge coloring (valid: " + proper + ", complete: " + complete + ", checked vertices: " + checkedVertices
+                    + ") fails at vertex " + vertex + " on edges [" + edgeList + "]";
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,445 @@
+import java.util.Arrays;
+
+// Fully dynamic (Delta + 1)-edge coloring of a graph on vertices 0, ..., n - 1.
+//
+// Edges can be inserted and deleted one at a time. An inserted edge is colored greedily if a color is missing at
+// both of its endpoints, and otherwise with a single Vizing fan and alternating path (Misra-Gries). A deleted edge
+// frees its color at both endpoints. The palette always is [1, Delta + 1] for the current maximum degree Delta: when
+// a deletion lowers Delta, the edges of the color that left the palette (a matching) are recolored. The edges of
+// each color are kept in a list, so this only visits the edges of that color.
+//
+// The fan and the alternating path are the same steps as in VizingFan and EdgeColoring.FlipAlternatingPath, but
+// those work on the edge ids of an immutable Graph and a palette fixed when the coloring is created. Here the edge
+// set changes with every update and the palette grows and shrinks with Delta, so the edges are keyed by their
+// endpoints and the rows of each vertex grow with the palette instead.
+public class DynamicEdgeColoring {
+
+    private static final int NONE = -1;
+
+    // Number of vertices
+    private final int n;
+
+    // Number of edges
+    private int m;
+
+    // Degree of each vertex, and the number of vertices of each degree (to maintain the maximum degree)
+    private final int[] degree;
+    private int[] degreeCount;
+    private int maxDegree;
+
+    // Colors are integers in [1, maxColor], with maxColor = maxDegree + 1
+    private int maxColor;
+
+    // Color of each edge (u, v) with u < v, keyed by u * n + v
+    private final LongIntHashMap edgeColor;
+
+    // Neighbor joined to each vertex by the edge of each color, rows grow with the palette
+    private final int[][] colorToNeighbor;
+
+    // Bitset of the colors used at each vertex, rows grow with the palette
+    private final long[][] usedColors;
+
+    // Edges of each color, stored by their smaller endpoint, and the position of each edge in the list of its color
+    // (at the smaller endpoint, rows grow with the palette)
+    private int[][] colorClass;
+    private int[] classSize;
+    private final int[][] classPosition;
+
+    // Reusable buffer for the leaves of a fan
+    private int[] fan = new int[16];
+
+    // Update latency statistics in nanoseconds
+    private long updates;
+    private long lastUpdateNanos;
+    private long totalUpdateNanos;
+    private long maxUpdateNanos;
+
+    public DynamicEdgeColoring(int n) {
+        this.n = n;
+        this.degree = new int[n];
+        this.degreeCount = new int[2];
+        this.degreeCount[0] = n;
+        this.maxColor = 1;
+        this.edgeColor = new LongIntHashMap(16);
+        this.colorToNeighbor = new int[n][];
+        this.usedColors = new long[n][];
+        this.colorClass = new int[2][0];
+        this.classSize = new int[2];
+        this.classPosition = new int[n][];
+        for (int v = 0; v < n; v++) {
+            colorToNeighbor[v] = new int[0];
+            usedColors[v] = new long[0];
+            classPosition[v] = new int[0];
+        }
+    }
+
+    // Starts from the edges of a graph, inserted one at a time
+    public DynamicEdgeColoring(Graph graph) {
+        this(graph.n());
+        for (int e = 0; e < graph.m(); e++) {
+            insertEdge(graph.edgeU(e), graph.edgeV(e));
+        }
+    }
+
+    // Inserts the edge (u, v) and colors it, returns false if it is already present or invalid
+    public boolean insertEdge(int u, int v) {
+
+        long start = System.nanoTime();
+
+        if (u == v || u < 0 || v < 0 || u >= n || v >= n || edgeColor.containsKey(key(u, v))) {
+            return false;
+        }
+
+        m++;
+        incrementDegree(u);
+        incrementDegree(v);
+        edgeColor.put(key(u, v), 0);
+
+        // Greedily use a color that is missing at both endpoints, if one is found at either endpoint
+        int colorU = smallestMissingColor(u);
+        int colorV = smallestMissingColor(v);
+        if (isMissing(v, colorU)) {
+            setColor(u, v, colorU);
+        } else if (isMissing(u, colorV)) {
+            setColor(u, v, colorV);
+        } else {
+            colorWithFan(u, v);
+        }
+
+        recordUpdate(start);
+        return true;
+    }
+
+    // Deletes the edge (u, v), returns false if it is not present
+    public boolean deleteEdge(int u, int v) {
+
+        long start = System.nanoTime();
+
+        if (u == v || u < 0 || v < 0 || u >= n || v >= n || !edgeColor.containsKey(key(u, v))) {
+            return false;
+        }
+
+        clearColor(u, v);
+        edgeColor.remove(key(u, v));
+        m--;
+        decrementDegree(u);
+        decrementDegree(v);
+
+        // Keep the palette at [1, maxDegree + 1] by recoloring the color class that no longer fits, recoloring never
+        // uses the removed color again so the class shrinks by one edge each time
+        while (maxColor > maxDegree + 1) {
+            int removedColor = maxColor;
+            maxColor--;
+            while (removedColor < classSize.length && classSize[removedColor] > 0) {
+                int x = colorClass[removedColor][classSize[removedColor] - 1];
+                int y = neighborWithColor(x, removedColor);
+                clearColor(x, y);
+                colorEdge(x, y);
+            }
+        }
+
+        recordUpdate(start);
+        return true;
+    }
+
+    // Colors the uncolored edge (u, v) with the current palette
+    private void colorEdge(int u, int v) {
+        int colorU = smallestMissingColor(u);
+        if (isMissing(v, colorU)) {
+            setColor(u, v, colorU);
+        } else {
+            colorWithFan(u, v);
+        }
+    }
+
+    // Misra-Gries: colors the uncolored edge (center, leaf) with a maximal fan at center and one alternating path
+    private void colorWithFan(int center, int leaf) {
+
+        // Build a maximal fan: the edge to the next leaf has a color that is missing at the previous leaf
+        int size = 0;
+        fan[size++] = leaf;
+        while (true) {
+            int next = neighborWithColor(center, smallestMissingColor(fan[size - 1]));
+            if (next == NONE || contains(fan, size, next)) {
+                break;
+            }
+            if (size == fan.length) {
+                fan = Arrays.copyOf(fan, 2 * size);
+            }
+            fan[size++] = next;
+        }
+
+        // c is missing at the center and d at the last leaf, so the (c, d)-path from the center is flipped
+        int c = smallestMissingColor(center);
+        int d = smallestMissingColor(fan[size - 1]);
+        if (!isMissing(center, d)) {
+            flipAlternatingPath(center, d, c);
+        }
+
+        // Find the first leaf w missing d such that the fan up to w is still intact after the flip
+        int w = 0;
+        while (!isMissing(fan[w], d)) {
+            int nextColor = getEdgeColor(center, fan[w + 1]);
+            if (!isMissing(fan[w], nextColor)) {
+                throw new IllegalStateException("Fan at vertex " + center + " has no leaf missing color " + d + ". This should not happen if the algorithm is correct.");
+            }
+            w++;
+        }
+
+        // Rotate the fan up to w and color the last edge with d
+        for (int i = 0; i < w; i++) {
+            int color = getEdgeColor(center, fan[i + 1]);
+            clearColor(center, fan[i + 1]);
+            setColor(center, fan[i], color);
+        }
+        setColor(center, fan[w], d);
+    }
+
+    private static boolean contains(int[] array, int size, int value) {
+        for (int i = 0; i < size; i++) {
+            if (array[i] == value) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // Flips the (a, b)-alternating path starting at vertex, which has an edge of color a and misses b
+    private void flipAlternatingPath(int vertex, int a, int b) {
+
+        int current = vertex;
+        int previous = NONE;
+        while (true) {
+            int next = neighborWithColor(current, a);
+
+            // The edge entering current had color b and now has color a, the edge leaving it goes from a to b
+            setEntry(current, a, previous);
+            setEntry(current, b, next);
+            if (next != NONE) {
+                edgeColor.put(key(current, next), b);
+                removeFromClass(current, next, a);
+            }
+
+            // The entering edge joins the list of a only after the leaving edge left it, as both may be stored at current
+            if (previous != NONE) {
+                addToClass(previous, current, a);
+            }
+            if (next == NONE) {
+                break;
+            }
+
+            previous = current;
+            current = next;
+            int t = a;
+            a = b;
+            b = t;
+        }
+    }
+
+    // Get the color of the edge (u, v), 0 if it is uncolored, or -1 if it is not present
+    public int getEdgeColor(int u, int v) {
+        if (u == v || u < 0 || v < 0 || u >= n || v >= n) {
+            return NONE;
+        }
+        return edgeColor.get(key(u, v), NONE);
+    }
+
+    // Check if a color is missing at a vertex
+    public boolean isMissing(int vertex, int color) {
+        return neighborWithColor(vertex, color) == NONE;
+    }
+
+    // Get the neighbor joined to vertex by the edge with a specific color, or -1 if the color is missing
+    public int neighborWithColor(int vertex, int color) {
+        int[] row = colorToNeighbor[vertex];
+        return (color < row.length) ? row[color] : NONE;
+    }
+
+    // Get the smallest color of the palette missing at a vertex, which exists since deg(vertex) < maxColor
+    public int smallestMissingColor(int vertex) {
+        long[] used = usedColors[vertex];
+        for (int w = 0; w < used.length; w++) {
+            if (used[w] != -1L) {
+                int color = (w << 6) + Long.numberOfTrailingZeros(~used[w]) + 1;
+                return Math.min(color, maxColor);
+            }
+        }
+        return Math.min((used.length << 6) + 1, maxColor);
+    }
+
+    private void setColor(int u, int v, int color) {
+        if (!isMissing(u, color) || !isMissing(v, color) || color < 1 || color > maxColor) {
+            throw new IllegalStateException("Color " + color + " is not available for edge (" + u + ", " + v + ").");
+        }
+        edgeColor.put(key(u, v), color);
+        setEntry(u, color, v);
+        setEntry(v, color, u);
+        addToClass(u, v, color);
+    }
+
+    private void clearColor(int u, int v) {
+        int color = edgeColor.get(key(u, v), 0);
+        if (color > 0) {
+            edgeColor.put(key(u, v), 0);
+            setEntry(u, color, NONE);
+            setEntry(v, color, NONE);
+            removeFromClass(u, v, color);
+        }
+    }
+
+    // Appends the edge (u, v) to the list of its color
+    private void addToClass(int u, int v, int color) {
+        if (color >= classSize.length) {
+            int length = Math.max(color + 1, 2 * classSize.length);
+            colorClass = Arrays.copyOf(colorClass, length);
+            for (int c = classSize.length; c < length; c++) {
+                colorClass[c] = new int[0];
+            }
+            classSize = Arrays.copyOf(classSize, length);
+        }
+        if (classSize[color] == colorClass[color].length) {
+            colorClass[color] = Arrays.copyOf(colorClass[color], Math.max(4, 2 * classSize[color]));
+        }
+        int x = Math.min(u, v);
+        growRows(x, color);
+        classPosition[x][color] = classSize[color];
+        colorClass[color][classSize[color]++] = x;
+    }
+
+    // Removes the edge (u, v) from the list of its color, moving the last edge of the list into its place
+    private void removeFromClass(int u, int v, int color) {
+        int position = classPosition[Math.min(u, v)][color];
+        int last = colorClass[color][--classSize[color]];
+        colorClass[color][position] = last;
+        classPosition[last][color] = position;
+    }
+
+    // Sets the neighbor of vertex with the given color, growing its rows as needed
+    private void setEntry(int vertex, int color, int neighbor) {
+        if (color >= colorToNeighbor[vertex].length) {
+            if (neighbor == NONE) {
+                return;
+            }
+            growRows(vertex, color);
+        }
+        int[] row = colorToNeighbor[vertex];
+        row[color] = neighbor;
+
+        int bit = color - 1;
+        if (neighbor == NONE) {
+            usedColors[vertex][bit >>> 6] &= ~(1L << bit);
+        } else {
+            usedColors[vertex][bit >>> 6] |= 1L << bit;
+        }
+    }
+
+    // Grows the rows of vertex so that they hold the given color
+    private void growRows(int vertex, int color) {
+        int[] row = colorToNeighbor[vertex];
+        if (color < row.length) {
+            return;
+        }
+        int length = Math.max(color + 1, 2 * row.length);
+        colorToNeighbor[vertex] = Arrays.copyOf(row, length);
+        Arrays.fill(colorToNeighbor[vertex], row.length, length, NONE);
+        usedColors[vertex] = Arrays.copyOf(usedColors[vertex], (length + 63) >>> 6);
+        classPosition[vertex] = Arrays.copyOf(classPosition[vertex], length);
+    }
+
+    private void incrementDegree(int vertex) {
+        degreeCount[degree[vertex]]--;
+        degree[vertex]++;
+        if (degree[vertex] >= degreeCount.length) {
+            degreeCount = Arrays.copyOf(degreeCount, 2 * degreeCount.length);
+        }
+        degreeCount[degree[vertex]]++;
+        if (degree[vertex] > maxDegree) {
+            maxDegree = degree[vertex];
+            maxColor = maxDegree + 1;
+        }
+    }
+
+    private void decrementDegree(int vertex) {
+        degreeCount[degree[vertex]]--;
+        degree[vertex]--;
+        degreeCount[degree[vertex]]++;
+        while (maxDegree > 0 && degreeCount[maxDegree] == 0) {
+            maxDegree--;
+        }
+    }
+
+    private long key(int u, int v) {
+        return (u < v) ? (long) u * n + v : (long) v * n + u;
+    }
+
+    private void recordUpdate(long start) {
+        lastUpdateNanos = System.nanoTime() - start;
+        totalUpdateNanos += lastUpdateNanos;
+        maxUpdateNanos = Math.max(maxUpdateNanos, lastUpdateNanos);
+        updates++;
+    }
+
+    // Checks that every edge is colored and that no two edges at a vertex share a color
+    public boolean isValid() {
+        long colored = 0;
+        for (int v = 0; v < n; v++) {
+            int[] row = colorToNeighbor[v];
+            for (int color = 1; color < row.length; color++) {
+                int u = row[color];
+                if (u == NONE) {
+                    continue;
+                }
+                if (color > maxColor || neighborWithColor(u, color) != v || getEdgeColor(u, v) != color) {
+                    return false;
+                }
+                colored++;
+            }
+        }
+        return colored == 2L * m;
+    }
+
+    // Get the number of vertices
+    public int n() {
+        return n;
+    }
+
+    // Get the number of edges
+    public int m() {
+        return m;
+    }
+
+    // Get the degree of a vertex
+    public int degree(int vertex) {
+        return degree[vertex];
+    }
+
+    // Get the current maximum degree
+    public int maxDegree() {
+        return maxDegree;
+    }
+
+    // Get the largest color of the palette, maxDegree() + 1
+    public int maxColor() {
+        return maxColor;
+    }
+
+    // Get the number of updates performed
+    public long getUpdateCount() {
+        return updates;
+    }
+
+    // Get the latency of the last update in nanoseconds
+    public long getLastUpdateNanos() {
+        return lastUpdateNanos;
+    }
+
+    // Get the mean latency of the updates in nanoseconds
+    public double getMeanUpdateNanos() {
+        return (updates == 0) ? 0 : (double) totalUpdateNanos / updates;
+    }
+
+    // Get the largest latency of an update in nanoseconds
+    public long getMaxUpdateNanos() {
+        return maxUpdateNanos;
+    }
+}
\ No newline at end of file
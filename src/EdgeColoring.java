@@ -1,19 +1,17 @@
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashMap;
-import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.SplittableRandom;
 
 public class EdgeColoring {
 
     // Graph instance
     private Graph graph;
 
-    // Map to store the edges of the graph
-    private HashMap<Integer, Set<Integer>> edges;
-
     // Number of vertices in the graph
     private int n;
 
@@ -23,25 +21,44 @@ public class EdgeColoring {
     // Maximum degree of the graph
     private int maxDegree;
 
-    // Map to store the edges of the graph
-    private HashMap<Edge, Integer> coloring;
+    // Color of each edge, indexed by the edge ids of the graph. Colors are kept in a short[] (read as unsigned)
+    // whenever maxColor fits in 16 bits, and in an int[] otherwise.
+    private short[] shortColors;
+    private int[] intColors;
+
+    // Color of each edge when the coloring is stored off-heap
+    private OffHeapIntArray offHeapColors;
 
-    // Map from (vertex, color) to edges incident on the vertex with that color
-    private HashMap<Pair<Integer, Integer>, Integer> vertexColorToEdge;
+    // Table from (vertex, color) to the id of the edge incident on the vertex with that color
+    private VertexColorTable vertexColorToEdge;
 
     // Maintains the set of missing colors for each vertex
-    private HashMap<Integer, Set<Integer>> missingColors;
+    private Palette missingColors;
 
     // Max number of colors used by the algorithm
     private int maxColor;
 
+    // If set, alternating paths are flipped edge by edge through the checked setEdgeColor (enabled with -ea)
+    private boolean validateFlips = EdgeColoring.class.desiredAssertionStatus();
+
+    // Reusable buffer for the edges of an alternating path when flips are validated
+    private int[] pathBuffer = new int[16];
+
+    // Optional instrumentation of flips and validation, null when disabled
+    private ColoringMetrics metrics;
+
     // Use 0 to denote uncolored, and integers in [1, maxColor] for colors
 
     public EdgeColoring(Graph graph, int maxColor) {
+        this(graph, maxColor, null);
+    }
+
+    // Constructor for an edge coloring whose colors, vertex/color table and palette are stored off-heap in storage
+    // (null to store them on the heap)
+    public EdgeColoring(Graph graph, int maxColor, OffHeapStorage storage) {
 
         // Store the graph instance and its properties
         this.graph = graph;
-        this.edges = graph.getEdges();
         this.n = graph.n();
         this.m = graph.m();
         this.maxDegree = graph.maxDegree();
@@ -49,29 +66,25 @@ public class EdgeColoring {
         // The maximum color used by the algorithm
         this.maxColor = maxColor;
 
-        // Initialize the data structures
-        this.coloring = new HashMap<Edge, Integer>();
-
-        for (Integer u : edges.keySet()) {
-            for (Integer v : edges.get(u)) {
-                Edge edge = new Edge(u, v);
-                this.coloring.put(edge, 0); // Initialize all edges as uncolored
-            }
+        // Initialize the data structures, all edges start uncolored
+        if (storage != null) {
+            this.offHeapColors = storage.allocateInts(m);
+        } else if (maxColor < (1 << 16)) {
+            this.shortColors = new short[m];
+        } else {
+            this.intColors = new int[m];
         }
 
-        this.vertexColorToEdge = new HashMap<Pair<Integer, Integer>, Integer>();
+        // Dense when n * (maxColor + 1) is affordable, so that a lookup is a single array load
+        this.vertexColorToEdge = (storage != null) ? VertexColorTable.create(n, m, maxColor, storage) : VertexColorTable.create(n, m, maxColor);
         
         // NOTE: Explicitly initializing the missing colors for each vertex takes O(n * maxColor) time.
         // We only store the missing colors in the range [1, deg(u) + 1], this suffices to always find a missing color.
-        this.missingColors = new HashMap<Integer, Set<Integer>>();
-        for (Integer vertex : edges.keySet()) {
-            int vertexMaxColor = Math.min(edges.get(vertex).size() + 1, maxColor);
-            Set<Integer> colors = new HashSet<>();
-            for (int color = 1; color <= vertexMaxColor; color++) {
-                colors.add(color); // Initialize with all possible colors
-            }
-            missingColors.put(vertex, colors);
+        int[] capacities = new int[n];
+        for (int vertex = 0; vertex < n; vertex++) {
+            capacities[vertex] = Math.min(graph.degree(vertex) + 1, maxColor);
         }
+        this.missingColors = (storage != null) ? new OffHeapPalette(capacities, storage) : new Palette(capacities);
     }
 
     // Constructor for EdgeColoring with default maxColor
@@ -79,127 +92,221 @@ public class EdgeColoring {
         this(graph, graph.maxDegree() + 1);
     }
 
-    public boolean uncolorEdge(Edge edge) {
+    private int colorOf(int edgeId) {
+        if (shortColors != null) {
+            return shortColors[edgeId] & 0xFFFF;
+        }
+        return (intColors != null) ? intColors[edgeId] : offHeapColors.get(edgeId);
+    }
+
+    private void storeColor(int edgeId, int color) {
+        if (shortColors != null) {
+            shortColors[edgeId] = (short) color;
+        } else if (intColors != null) {
+            intColors[edgeId] = color;
+        } else {
+            offHeapColors.set(edgeId, color);
+        }
+    }
+
+    public boolean uncolorEdge(int edgeId) {
 
         // If input invalid or no change needed
-        if (!coloring.containsKey(edge) || coloring.get(edge) == 0) {
+        if (edgeId < 0 || edgeId >= m || colorOf(edgeId) == 0) {
             return false;
         }
 
-        int color = coloring.get(edge);
+        int color = colorOf(edgeId);
 
-        // Remove the edge from the vertexColorToEdge map
-        int u = edge.u();
-        int v = edge.v();
-        vertexColorToEdge.remove(new Pair<>(u, color));
-        vertexColorToEdge.remove(new Pair<>(v, color));
-        missingColors.get(u).add(color);
-        missingColors.get(v).add(color);
+        // Remove the edge from the vertexColorToEdge table
+        int u = graph.edgeU(edgeId);
+        int v = graph.edgeV(edgeId);
+        vertexColorToEdge.remove(u, color);
+        vertexColorToEdge.remove(v, color);
+        missingColors.add(u, color);
+        missingColors.add(v, color);
 
-        coloring.put(edge, 0); // Uncolor the edge
+        storeColor(edgeId, 0); // Uncolor the edge
 
         return true;
     }
 
+    public boolean uncolorEdge(Edge edge) {
+        return uncolorEdge(graph.findEdge(edge.u(), edge.v()));
+    }
+
     public boolean uncolorEdge(int u, int v) {
-        return uncolorEdge(new Edge(u, v));
+        return uncolorEdge(graph.findEdge(u, v));
     }
 
-    public boolean setEdgeColor(Edge edge, int color) {
+    public boolean setEdgeColor(int edgeId, int color) {
 
         // If input invalid or no change needed
-        if (!coloring.containsKey(edge) || color < 0 || color == coloring.get(edge)) {
+        if (edgeId < 0 || edgeId >= m || color < 0 || color > maxColor || color == colorOf(edgeId)) {
             return false;
         }
 
+        if (color == 0) {
+            return uncolorEdge(edgeId);
+        }
+
         // Check for conflicts
-        int u = edge.u();
-        int v = edge.v();
+        int u = graph.edgeU(edgeId);
+        int v = graph.edgeV(edgeId);
 
-        if (vertexColorToEdge.containsKey(new Pair<>(u, color)) || vertexColorToEdge.containsKey(new Pair<>(v, color))) {
+        if (vertexColorToEdge.contains(u, color) || vertexColorToEdge.contains(v, color)) {
             return false; // Color already used at one of the vertices
         }
 
-        this.uncolorEdge(edge); // Uncolor the edge first
+        this.uncolorEdge(edgeId); // Uncolor the edge first
         
         // Update the data structures
-        coloring.put(edge, color);
-        vertexColorToEdge.put(new Pair<>(u, color), v);
-        vertexColorToEdge.put(new Pair<>(v, color), u);
-        missingColors.get(u).remove(color);
-        missingColors.get(v).remove(color);
+        storeColor(edgeId, color);
+        vertexColorToEdge.put(u, color, edgeId);
+        vertexColorToEdge.put(v, color, edgeId);
+        missingColors.remove(u, color);
+        missingColors.remove(v, color);
 
         return true;
     }
 
+    public boolean setEdgeColor(Edge edge, int color) {
+        return setEdgeColor(graph.findEdge(edge.u(), edge.v()), color);
+    }
+
     public boolean setEdgeColor(Edge edge, int color, SeparableCollection collection) {
+        return setEdgeColor(graph.findEdge(edge.u(), edge.v()), color, collection);
+    }
 
-        // TODO: Add option to UPDATE instead of DESTROY the u-component
-        collection.destroyDamagedComponent(edge.u(), color);
-        collection.destroyDamagedComponent(edge.v(), color);
+    // Set the color of an edge, updating the u-components of the collection that relied on the color being missing
+    public boolean setEdgeColor(int edgeId, int color, SeparableCollection collection) {
 
-        return setEdgeColor(edge, color);
+        collection.updateDamagedComponent(graph.edgeU(edgeId), color);
+        collection.updateDamagedComponent(graph.edgeV(edgeId), color);
+
+        return setEdgeColor(edgeId, color);
     }
 
     public boolean setEdgeColor(int u, int v, int color) {
-        return setEdgeColor(new Edge(u, v), color);
+        return setEdgeColor(graph.findEdge(u, v), color);
     }
 
     public boolean setEdgeColor(int u, int v, int color, SeparableCollection collection) {
         return setEdgeColor(new Edge(u, v), color, collection);
     }
 
-    // Get the color of an edge
+    // Checks if assignColorAtVertex may be called concurrently for distinct vertices
+    boolean supportsConcurrentVertexUpdates() {
+        return vertexColorToEdge instanceof DenseVertexColorTable || vertexColorToEdge instanceof OffHeapDenseVertexColorTable;
+    }
+
+    // Records that an uncolored edge takes 'color' at one of its endpoints, touching only the state of that vertex.
+    // Callers must check that the color is missing at both endpoints, assign it at both, and store it with
+    // assignEdgeColor. This lets parallel algorithms commit colors vertex by vertex without locking.
+    void assignColorAtVertex(int vertex, int edgeId, int color) {
+        vertexColorToEdge.put(vertex, color, edgeId);
+        missingColors.remove(vertex, color);
+    }
+
+    void assignEdgeColor(int edgeId, int color) {
+        storeColor(edgeId, color);
+    }
+
+    // Get the color of an edge, or null if it is not in the graph
     public Integer getEdgeColor(int u, int v) {
-        return coloring.get(new Edge(u, v));
+        int edgeId = graph.findEdge(u, v);
+        return (edgeId < 0) ? null : colorOf(edgeId);
     }
     
     public Integer getEdgeColor(Edge edge) {
-        return coloring.get(edge);
+        return getEdgeColor(edge.u(), edge.v());
+    }
+
+    // Get the color of the edge with the given id
+    public int getEdgeColor(int edgeId) {
+        return colorOf(edgeId);
     }
 
     // Get the edge incident on a vertex with a specific color
     public Integer getEdgeWithColorAtVertex(int vertex, int color) {
-        return vertexColorToEdge.get(new Pair<>(vertex, color));
+        int neighbor = getNeighborWithColor(vertex, color);
+        return (neighbor == VertexColorTable.NONE) ? null : neighbor;
+    }
+
+    // Get the neighbor joined to a vertex by the edge with a specific color, or -1 if the color is missing
+    public int getNeighborWithColor(int vertex, int color) {
+        int edgeId = getEdgeIdWithColorAtVertex(vertex, color);
+        return (edgeId == VertexColorTable.NONE) ? VertexColorTable.NONE : graph.other(edgeId, vertex);
+    }
+
+    // Get the id of the edge incident on a vertex with a specific color, or -1 if the color is missing
+    public int getEdgeIdWithColorAtVertex(int vertex, int color) {
+        if (color < 1 || color > maxColor) {
+            return VertexColorTable.NONE;
+        }
+        return vertexColorToEdge.get(vertex, color);
     }
 
     // Get a missing color for a vertex
     public Integer getMissingColor(int vertex) {
-        Set<Integer> colors = missingColors.get(vertex);
-        if (colors.isEmpty()) {
-            return null;
-        }
-        return colors.iterator().next(); // Return an arbitrary missing color
+        int color = getAnyMissingColor(vertex);
+        return (color == 0) ? null : color;
+    }
+
+    // Get an arbitrary missing color for a vertex in O(1) time, or 0 if there is none
+    public int getAnyMissingColor(int vertex) {
+        return missingColors.any(vertex);
+    }
+
+    // Get a uniformly random missing color for a vertex, or 0 if there is none
+    public int getRandomMissingColor(int vertex, SplittableRandom rand) {
+        int size = missingColors.size(vertex);
+        return (size == 0) ? 0 : missingColors.get(vertex, rand.nextInt(size));
+    }
+
+    // Get the smallest missing color for a vertex, or 0 if there is none
+    public int getSmallestMissingColor(int vertex) {
+        return missingColors.smallest(vertex);
+    }
+
+    // Get the missing colors of the vertices
+    public Palette getMissingColors() {
+        return missingColors;
     }
 
     // Check if a vertex has a missing color
     public boolean isMissing(int vertex, int color) {
-        return vertexColorToEdge.get(new Pair<>(vertex, color)) == null;
+        return getEdgeIdWithColorAtVertex(vertex, color) == VertexColorTable.NONE;
     }
 
     // Ensures 'color' is not missing at vertex 
     public boolean addBlockedColor(int vertex, int color) {
 
-        if (vertexColorToEdge.containsKey(new Pair<>(vertex, color))) {
+        if (!isMissing(vertex, color)) {
             throw new IllegalArgumentException("Color " + color + " is already used at vertex " + vertex);
         }
 
-        return missingColors.get(vertex).remove(color);
+        return missingColors.remove(vertex, color);
     }
 
     // Make 'color' missing at vertex
     public void removeBlockedColor(int vertex, int color) {
 
-        if (vertexColorToEdge.containsKey(new Pair<>(vertex, color))) {
+        if (!isMissing(vertex, color)) {
             throw new IllegalArgumentException("Color " + color + " is already used at vertex " + vertex);
         }
 
-        missingColors.get(vertex).add(color);
+        missingColors.add(vertex, color);
     }
 
     // Get the edges of the graph
     public HashMap<Integer, Set<Integer>> getEdges() {
-        return edges;
+        return graph.getEdges();
+    }
+
+    // Get the graph that is being colored
+    public Graph getGraph() {
+        return graph;
     }
 
     // Get the number of vertices in the graph
@@ -222,107 +329,281 @@ public class EdgeColoring {
         return maxColor;
     }
 
+    // Set the metrics that record the flips on this coloring, and that fans and algorithms working on it report to
+    // (null to disable)
+    public void setMetrics(ColoringMetrics metrics) {
+        this.metrics = metrics;
+    }
+
+    public ColoringMetrics getMetrics() {
+        return metrics;
+    }
+
+    // Enable or disable the validating (debug) mode of FlipAlternatingPath
+    public void setValidateFlips(boolean validateFlips) {
+        this.validateFlips = validateFlips;
+    }
+
     // Flip the (c1, c2)-alternating path starting from vertex
     public boolean FlipAlternatingPath(int vertex, int c1, int c2) {
+        return flipAlternatingPath(vertex, c1, c2) != VertexColorTable.NONE;
+    }
+
+    // Flip the (c1, c2)-alternating path starting from vertex, and update the u-components of the collection that
+    // relied on a color that is no longer missing at an endpoint of the path. The inner vertices of the path keep
+    // their missing colors, so no other u-component is damaged.
+    public boolean FlipAlternatingPath(int vertex, int c1, int c2, SeparableCollection collection) {
+
+        int end = flipAlternatingPath(vertex, c1, c2);
+        if (end == VertexColorTable.NONE) {
+            return false;
+        }
+
+        for (int endpoint : new int[] {vertex, end}) {
+            if (!isMissing(endpoint, c1)) {
+                collection.updateDamagedComponent(endpoint, c1);
+            }
+            if (!isMissing(endpoint, c2)) {
+                collection.updateDamagedComponent(endpoint, c2);
+            }
+        }
+
+        return true;
+    }
+
+    // Flips the (c1, c2)-alternating path starting from vertex, returns the other endpoint of the path (vertex itself
+    // if the path is empty), or -1 if vertex has both colors and no such path starts there
+    private int flipAlternatingPath(int vertex, int c1, int c2) {
 
         if (c1 == c2) {
-            return true; // No need to flip if colors are the same
+            return vertex; // No need to flip if colors are the same
         }
         
         boolean missingC1 = isMissing(vertex, c1);
         boolean missingC2 = isMissing(vertex, c2);
 
         if (missingC1 && missingC2) {
-            return true; // Alternating path is empty
+            return vertex; // Alternating path is empty
         }
 
         if (!missingC1 && !missingC2) {
-            return false; // Vertex has both colors, no (c1,c2)-alternating path starts here
+            return VertexColorTable.NONE; // Vertex has both colors, no (c1,c2)-alternating path starts here
         }
 
         // Determine the current color to start flipping
-        Integer nextColor = null;
-        if (!missingC1) {
-            nextColor = c1;
+        int nextColor = missingC1 ? c2 : c1;
+
+        if (validateFlips) {
+            return flipAlternatingPathChecked(vertex, nextColor, (nextColor == c1) ? c2 : c1);
+        }
+        return flipAlternatingPathInPlace(vertex, nextColor, (nextColor == c1) ? c2 : c1);
+    }
+
+    // Get the other endpoint of the (c1, c2)-alternating path starting from vertex without flipping it, vertex
+    // itself if the path is empty, or -1 if vertex has both colors
+    public int alternatingPathEnd(int vertex, int c1, int c2) {
+
+        boolean missingC1 = isMissing(vertex, c1);
+        boolean missingC2 = isMissing(vertex, c2);
+
+        if (c1 == c2 || (missingC1 && missingC2)) {
+            return vertex;
+        }
+        if (!missingC1 && !missingC2) {
+            return VertexColorTable.NONE;
+        }
+
+        int currentVertex = vertex;
+        int a = missingC1 ? c2 : c1;
+        int b = missingC1 ? c1 : c2;
+        int edgeId;
+
+        while ((edgeId = vertexColorToEdge.get(currentVertex, a)) != VertexColorTable.NONE) {
+            currentVertex = graph.other(edgeId, currentVertex);
+            int t = a;
+            a = b;
+            b = t;
+        }
+
+        return currentVertex;
+    }
+
+    // Get the number of edges of the (c1, c2)-alternating path starting from vertex, or -1 if it has more than limit
+    // edges (the walk stops there) or vertex has both colors
+    public int alternatingPathLength(int vertex, int c1, int c2, int limit) {
+
+        boolean missingC1 = isMissing(vertex, c1);
+        boolean missingC2 = isMissing(vertex, c2);
+
+        if (c1 == c2 || (missingC1 && missingC2)) {
+            return 0;
+        }
+        if (!missingC1 && !missingC2) {
+            return -1;
+        }
+
+        int currentVertex = vertex;
+        int a = missingC1 ? c2 : c1;
+        int b = missingC1 ? c1 : c2;
+        int length = 0;
+        int edgeId;
+
+        while ((edgeId = vertexColorToEdge.get(currentVertex, a)) != VertexColorTable.NONE) {
+            if (++length > limit) {
+                return -1;
+            }
+            currentVertex = graph.other(edgeId, currentVertex);
+            int t = a;
+            a = b;
+            b = t;
+        }
+
+        return length;
+    }
+
+    // Get the id of edge number 'index' (counting from 1) of the (c1, c2)-alternating path starting from vertex if the
+    // path continues past it, or -1 if the path has at most 'index' edges or vertex has both colors
+    public int truncatedPathEdge(int vertex, int c1, int c2, int index) {
+
+        boolean missingC1 = isMissing(vertex, c1);
+        boolean missingC2 = isMissing(vertex, c2);
+
+        if (c1 == c2 || missingC1 == missingC2 || index < 1) {
+            return VertexColorTable.NONE;
         }
-        if (!missingC2) {
-            nextColor = c2;
+
+        int currentVertex = vertex;
+        int a = missingC1 ? c2 : c1;
+        int b = missingC1 ? c1 : c2;
+        int edgeId = VertexColorTable.NONE;
+
+        for (int k = 0; k < index; k++) {
+            edgeId = vertexColorToEdge.get(currentVertex, a);
+            if (edgeId == VertexColorTable.NONE) {
+                return VertexColorTable.NONE;
+            }
+            currentVertex = graph.other(edgeId, currentVertex);
+            int t = a;
+            a = b;
+            b = t;
         }
 
+        // A path of exactly 'index' edges ends at the far endpoint of its last edge, which misses the next color
+        return (vertexColorToEdge.get(currentVertex, a) == VertexColorTable.NONE) ? VertexColorTable.NONE : edgeId;
+    }
+
+    // Flips the path in a single walk. The path starts at a vertex missing 'b', so it is not a cycle, and each vertex
+    // on it is visited once: its entries for the two colors are swapped, and the edge leaving it changes color.
+    // Only the two endpoints of the path change their sets of missing colors. Returns the last vertex of the path.
+    private int flipAlternatingPathInPlace(int vertex, int a, int b) {
+
         int currentVertex = vertex;
+        int incomingEdge = VertexColorTable.NONE;
+        int length = 0;
+
+        while (true) {
+
+            // The edge leaving currentVertex has color a, the edge entering it has color b
+            int outgoingEdge = vertexColorToEdge.get(currentVertex, a);
+            vertexColorToEdge.put(currentVertex, a, incomingEdge);
+            vertexColorToEdge.put(currentVertex, b, outgoingEdge);
+
+            if (outgoingEdge == VertexColorTable.NONE) {
+                break;
+            }
+
+            if (incomingEdge == VertexColorTable.NONE) {
+                missingColors.add(currentVertex, a);
+                missingColors.remove(currentVertex, b);
+            }
+
+            storeColor(outgoingEdge, b);
+            length++;
+
+            // Move to the neighbor vertex, where the roles of the colors are reversed
+            currentVertex = graph.other(outgoingEdge, currentVertex);
+            incomingEdge = outgoingEdge;
+            int t = a;
+            a = b;
+            b = t;
+        }
+
+        // The last vertex was entered by an edge of color b, which now has color a
+        missingColors.remove(currentVertex, a);
+        missingColors.add(currentVertex, b);
+
+        if (metrics != null) {
+            metrics.recordFlip(length);
+        }
+
+        return currentVertex;
+    }
+
+    // Flips the path by uncoloring all its edges and recoloring them through the checked setEdgeColor, returns the
+    // last vertex of the path
+    private int flipAlternatingPathChecked(int vertex, int a, int b) {
+
+        int currentVertex = vertex;
+        int nextColor = a;
+        int length = 0;
 
         // Construct the alternating path
-        List<Edge> path = new ArrayList<>();
-        
         while (!isMissing(currentVertex, nextColor)) {
 
             // Get the edge incident on currentVertex with nextColor
-            Integer neighbor = getEdgeWithColorAtVertex(currentVertex, nextColor);
-            if (neighbor == null) {
+            int edgeId = getEdgeIdWithColorAtVertex(currentVertex, nextColor);
+            if (edgeId == VertexColorTable.NONE) {
                 throw new IllegalStateException("Algorithm failed to flip path: No edge with color " + nextColor + " was found incident on vertex " + currentVertex);
             }
 
-            Edge edge = new Edge(currentVertex, neighbor);
-            path.add(edge);
+            if (length == pathBuffer.length) {
+                pathBuffer = Arrays.copyOf(pathBuffer, 2 * length);
+            }
+            pathBuffer[length++] = edgeId;
 
             // Move to the neighbor vertex
-            currentVertex = neighbor;
+            currentVertex = graph.other(edgeId, currentVertex);
 
             // Alternate the color for the next iteration
-            nextColor = (nextColor == c1) ? c2 : c1;
+            nextColor = (nextColor == a) ? b : a;
         }
 
         // Flip the colors along the path. Note that we must ensure that the coloring is valid at all times.
-        HashMap<Edge, Integer> newColors = new HashMap<>();
-        
+
         // Uncolor the edges in the path
-        for (Edge edge : path) {
-            int currentColor = getEdgeColor(edge);
-            int newColor = (currentColor == c1) ? c2 : c1;
-            newColors.put(edge, newColor);
-            uncolorEdge(edge);
-        }
-
-        // Set the new colors for the edges in the path
-        for (Edge edge : path) {
-            int newColor = newColors.get(edge);
-            if (!setEdgeColor(edge, newColor)) {
-                throw new IllegalStateException("Failed to set new color " + newColor + " for edge " + edge + ". This should not happen if the algorithm is correct.");
+        for (int k = 0; k < length; k++) {
+            uncolorEdge(pathBuffer[k]);
+        }
+
+        // Set the new colors for the edges in the path, the first edge had color a
+        int newColor = b;
+        for (int k = 0; k < length; k++) {
+            if (!setEdgeColor(pathBuffer[k], newColor)) {
+                throw new IllegalStateException("Failed to set new color " + newColor + " for edge " + pathBuffer[k] + ". This should not happen if the algorithm is correct.");
             }
+            newColor = (newColor == a) ? b : a;
+        }
+
+        if (metrics != null) {
+            metrics.recordFlip(length);
         }
 
-        return true; // Successfully flipped the alternating path
+        return currentVertex;
     }
 
-    // Checks if the edge coloring is valid
+    // Checks if the edge coloring is valid and complete, see ColoringValidator
+    @SuppressWarnings("try")
     public boolean isValid(boolean verbose) {
-        
-        boolean valid = true;
-        boolean complete = true;
-
-        for (Integer u : edges.keySet()) {
-            Set<Integer> colorsAtU = new HashSet<>();
-
-            for (Integer v : edges.get(u)) {
-                Edge edge = new Edge(u, v);
-
-                if (complete && coloring.get(edge) == 0) {
-                    complete = false; // Found an uncolored edge
-                }
-                if (valid && coloring.get(edge) == null) {
-                    valid = false; // Edge not found in coloring
-                } else if (valid && colorsAtU.contains(coloring.get(edge))) {
-                    valid = false; // Duplicate color at vertex u
-                } else {
-                    colorsAtU.add(coloring.get(edge));
-                }
-            }
+
+        ColoringValidator.Result result;
+        try (ColoringMetrics.Phase phase = ColoringMetrics.phase(metrics, ColoringMetrics.VALIDATION)) {
+            result = ColoringValidator.validate(this);
         }
 
         if (verbose) {
-            System.out.println("Edge coloring (valid: " + valid + ", complete: " + complete + ")");
+            System.out.println(result);
         }
 
-        return valid && complete;
+        return result.isValid();
     }
 }
\ No newline at end of file
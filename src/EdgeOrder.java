@@ -0,0 +1,169 @@
+import java.util.SplittableRandom;
+
+// Order in which the main loops of Vizing and VizingBipartite color the edges, and the endpoint each edge is colored
+// from (the center of its fan, or the vertex whose missing color it takes).
+//
+// The order decides which colors are missing where when each edge is colored, and therefore the lengths of the
+// alternating paths that are flipped. The vertex orders color all the uncolored edges of a vertex before moving to the
+// next vertex, which keeps the fans and the color tables of a vertex in cache.
+public enum EdgeOrder {
+
+    // Vertices by increasing id, the edges of each vertex in adjacency order
+    NATURAL,
+
+    // Edges in a uniformly random order for the seed, each from a random endpoint
+    RANDOM,
+
+    // Vertices by decreasing degree, so the most constrained vertices are colored while their palettes are free
+    DEGREE_DESCENDING,
+
+    // Vertices in reverse degeneracy (smallest-last) order: the vertices of the densest cores come first
+    DEGENERACY,
+
+    // Blocks of consecutive vertices in a random order for the seed, the vertices of each block by increasing id.
+    // Spreads the coloring over the graph while keeping the locality of the natural order within a block.
+    CHUNKED_BY_VERTEX;
+
+    // Number of consecutive vertices in a block of CHUNKED_BY_VERTEX
+    private static final int CHUNK_VERTICES = 256;
+
+    // Computes the sequence of edges of the graph in this order, the seed only matters for the random orders
+    EdgeSequence sequence(Graph graph, long seed) {
+        switch (this) {
+            case NATURAL: return byVertex(graph, identity(graph.n()));
+            case RANDOM: return random(graph, seed);
+            case DEGREE_DESCENDING: return byVertex(graph, VertexOrdering.degreeOrder(graph));
+            case DEGENERACY: return byVertex(graph, degeneracyOrder(graph));
+            case CHUNKED_BY_VERTEX: return byVertex(graph, chunkOrder(graph.n(), seed));
+            default: throw new IllegalArgumentException("Unknown edge order " + this);
+        }
+    }
+
+    // Every edge when one of its endpoints is first reached in the vertex order, from that endpoint
+    private static EdgeSequence byVertex(Graph graph, int[] vertices) {
+
+        EdgeSequence sequence = new EdgeSequence(graph.m());
+        boolean[] done = new boolean[graph.n()];
+        int k = 0;
+        for (int u : vertices) {
+            for (int i = 0; i < graph.degree(u); i++) {
+                if (!done[graph.neighbor(u, i)]) {
+                    sequence.centers[k] = u;
+                    sequence.edges[k++] = graph.edgeId(u, i);
+                }
+            }
+            done[u] = true;
+        }
+        return sequence;
+    }
+
+    private static EdgeSequence random(Graph graph, long seed) {
+
+        SplittableRandom rand = new SplittableRandom(seed);
+        EdgeSequence sequence = new EdgeSequence(graph.m());
+        int[] edges = identity(graph.m());
+        shuffle(edges, rand);
+        for (int k = 0; k < edges.length; k++) {
+            int e = edges[k];
+            sequence.centers[k] = rand.nextBoolean() ? graph.edgeU(e) : graph.edgeV(e);
+            sequence.edges[k] = e;
+        }
+        return sequence;
+    }
+
+    // Repeatedly removes a vertex of minimum remaining degree with a bucket queue, and returns the vertices in reverse
+    // order of removal
+    private static int[] degeneracyOrder(Graph graph) {
+
+        int n = graph.n();
+        int maxDegree = graph.maxDegree();
+
+        // Vertices sorted by remaining degree, with the start of each degree in the sorted array
+        int[] degree = new int[n];
+        int[] start = new int[maxDegree + 2];
+        for (int u = 0; u < n; u++) {
+            degree[u] = graph.degree(u);
+            start[degree[u] + 1]++;
+        }
+        for (int d = 0; d <= maxDegree; d++) {
+            start[d + 1] += start[d];
+        }
+        int[] sorted = new int[n];
+        int[] position = new int[n];
+        int[] next = new int[maxDegree + 1];
+        System.arraycopy(start, 0, next, 0, maxDegree + 1);
+        for (int u = 0; u < n; u++) {
+            position[u] = next[degree[u]]++;
+            sorted[position[u]] = u;
+        }
+
+        // Removing sorted[i] moves each neighbor with a larger remaining degree to the front of its bucket, and then
+        // into the bucket below
+        int[] order = new int[n];
+        for (int i = 0; i < n; i++) {
+            int u = sorted[i];
+            order[n - 1 - i] = u;
+            for (int j = 0; j < graph.degree(u); j++) {
+                int v = graph.neighbor(u, j);
+                if (degree[v] > degree[u]) {
+                    int first = sorted[start[degree[v]]];
+                    int pv = position[v];
+                    int pf = start[degree[v]];
+                    sorted[pv] = first;
+                    position[first] = pv;
+                    sorted[pf] = v;
+                    position[v] = pf;
+                    start[degree[v]]++;
+                    degree[v]--;
+                }
+            }
+        }
+        return order;
+    }
+
+    private static int[] chunkOrder(int n, long seed) {
+
+        int[] chunks = identity((n + CHUNK_VERTICES - 1) / CHUNK_VERTICES);
+        shuffle(chunks, new SplittableRandom(seed));
+
+        int[] order = new int[n];
+        int k = 0;
+        for (int chunk : chunks) {
+            int end = Math.min(n, (chunk + 1) * CHUNK_VERTICES);
+            for (int u = chunk * CHUNK_VERTICES; u < end; u++) {
+                order[k++] = u;
+            }
+        }
+        return order;
+    }
+
+    private static int[] identity(int length) {
+        int[] array = new int[length];
+        for (int i = 0; i < length; i++) {
+            array[i] = i;
+        }
+        return array;
+    }
+
+    // Fisher-Yates shuffle
+    private static void shuffle(int[] array, SplittableRandom rand) {
+        for (int i = array.length - 1; i > 0; i--) {
+            int j = rand.nextInt(i + 1);
+            int t = array[i];
+            array[i] = array[j];
+            array[j] = t;
+        }
+    }
+}
+
+// Edges in the order they are colored, each with the endpoint it is colored from
+class EdgeSequence {
+
+    final int[] centers;
+    final int[] edges;
+
+    EdgeSequence(int m) {
+        this.centers = new int[m];
+        this.edges = new int[m];
+    }
+}
\ No newline at end of file
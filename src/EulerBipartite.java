@@ -0,0 +1,402 @@
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.stream.IntStream;
+
+// Delta-edge coloring of bipartite graphs by divide and conquer with Euler partitions.
+//
+// An Euler partition splits the edges into two halves in which every vertex of degree d has degree at most
+// ceil(d / 2), so for even Delta both halves have maximum degree Delta / 2 and are colored recursively on disjoint
+// ranges of Delta / 2 colors. For odd Delta the halves have maximum degree (Delta + 1) / 2 and together use
+// Delta + 1 colors. The smallest color class, a matching of at most m / (Delta + 1) edges, is then peeled off and
+// its edges are recolored one at a time with the remaining Delta colors by flipping bipartite alternating paths.
+// Each level of the recursion takes linear time apart from the peeling, and there are O(log Delta) levels. The two
+// halves are colored in parallel on a ForkJoinPool.
+public class EulerBipartite implements EdgeColoringAlgorithm {
+
+    // Subproblems with fewer edges are not split into parallel tasks
+    private static final int SEQUENTIAL_THRESHOLD = 4096;
+
+    private final int parallelism;
+
+    public EulerBipartite() {
+        this(Runtime.getRuntime().availableProcessors());
+    }
+
+    public EulerBipartite(int parallelism) {
+        if (parallelism < 1) {
+            throw new IllegalArgumentException("Parallelism must be at least 1.");
+        }
+        this.parallelism = parallelism;
+    }
+
+    @Override
+    public EdgeColoring color(Graph graph) {
+
+        if (!isBipartite(graph)) {
+            throw new IllegalArgumentException("Graph is not bipartite.");
+        }
+
+        int maxColor = graph.maxDegree();
+        EdgeColoring coloring = new EdgeColoring(graph, maxColor);
+        if (graph.m() == 0) {
+            return coloring;
+        }
+
+        int[] edges = new int[graph.m()];
+        for (int e = 0; e < edges.length; e++) {
+            edges[e] = e;
+        }
+
+        // The tasks color disjoint sets of edges, so they share a single color array
+        int[] colors = new int[graph.m()];
+        ThreadLocal<EulerPartition> scratch = ThreadLocal.withInitial(() -> new EulerPartition(graph));
+
+        ForkJoinPool pool = new ForkJoinPool(parallelism);
+        try {
+            pool.invoke(new ColorTask(graph, colors, scratch, edges, maxColor, 1));
+
+            // Commit the colors, each vertex updating only its own state
+            if (parallelism > 1 && coloring.supportsConcurrentVertexUpdates()) {
+                pool.submit(() -> IntStream.range(0, graph.n()).parallel().forEach(u -> {
+                    for (int i = 0; i < graph.degree(u); i++) {
+                        int edgeId = graph.edgeId(u, i);
+                        coloring.assignColorAtVertex(u, edgeId, colors[edgeId]);
+                        if (graph.edgeU(edgeId) == u) {
+                            coloring.assignEdgeColor(edgeId, colors[edgeId]);
+                        }
+                    }
+                })).join();
+                return coloring;
+            }
+        } finally {
+            pool.shutdown();
+        }
+
+        for (int e = 0; e < colors.length; e++) {
+            if (!coloring.setEdgeColor(e, colors[e])) {
+                throw new IllegalStateException("Failed to set color " + colors[e] + " for edge " + e + ". This should not happen if the algorithm is correct.");
+            }
+        }
+
+        return coloring;
+    }
+
+    // Checks that the graph has no odd cycle with a breadth-first search from every unvisited vertex
+    static boolean isBipartite(Graph graph) {
+
+        byte[] side = new byte[graph.n()];
+        int[] queue = new int[graph.n()];
+
+        for (int s = 0; s < graph.n(); s++) {
+            if (side[s] != 0 || graph.degree(s) == 0) {
+                continue;
+            }
+            side[s] = 1;
+            int head = 0;
+            int tail = 0;
+            queue[tail++] = s;
+            while (head < tail) {
+                int u = queue[head++];
+                for (int i = 0; i < graph.degree(u); i++) {
+                    int v = graph.neighbor(u, i);
+                    if (side[v] == 0) {
+                        side[v] = (byte) (3 - side[u]);
+                        queue[tail++] = v;
+                    } else if (side[v] == side[u]) {
+                        return false;
+                    }
+                }
+            }
+        }
+
+        return true;
+    }
+
+    // Colors a set of edges with maximum degree at most delta using the colors firstColor, ..., firstColor + delta - 1
+    @SuppressWarnings("serial")
+    static class ColorTask extends RecursiveAction {
+
+        private final Graph graph;
+        private final int[] colors;
+        private final ThreadLocal<EulerPartition> scratch;
+        private final int[] edges;
+        private final int delta;
+        private final int firstColor;
+
+        ColorTask(Graph graph, int[] colors, ThreadLocal<EulerPartition> scratch, int[] edges, int delta, int firstColor) {
+            this.graph = graph;
+            this.colors = colors;
+            this.scratch = scratch;
+            this.edges = edges;
+            this.delta = delta;
+            this.firstColor = firstColor;
+        }
+
+        @Override
+        protected void compute() {
+
+            if (edges.length == 0) {
+                return;
+            }
+            if (delta == 1) {
+                for (int e : edges) {
+                    colors[e] = firstColor;
+                }
+                return;
+            }
+
+            // The scratch space of this thread is only used before the subtasks are forked
+            int[][] halves = scratch.get().split(edges);
+            int half = (delta + 1) / 2;
+            ColorTask left = new ColorTask(graph, colors, scratch, halves[0], half, firstColor);
+            ColorTask right = new ColorTask(graph, colors, scratch, halves[1], half, firstColor + half);
+
+            if (edges.length >= SEQUENTIAL_THRESHOLD) {
+                invokeAll(left, right);
+            } else {
+                left.compute();
+                right.compute();
+            }
+
+            // The halves used delta + 1 colors
+            if (delta % 2 == 1) {
+                scratch.get().peel(edges, colors, delta, firstColor);
+            }
+        }
+    }
+}
+
+// Euler partitions and matching peeling on subsets of the edges of a graph. The vertices of a subset are relabeled
+// 0, ..., k - 1, so the work is proportional to the size of the subset and not to the number of vertices of the
+// graph. Each thread keeps its own instance, since the relabeling arrays have one entry per vertex of the graph.
+class EulerPartition {
+
+    private final Graph graph;
+
+    // Local id of each vertex, valid if its stamp is the current one
+    private final int[] localId;
+    private final int[] stamp;
+    private int currentStamp;
+
+    // Local endpoints of the edges of the current subset, and its number of vertices
+    private int[] localU = new int[16];
+    private int[] localV = new int[16];
+    private int vertices;
+
+    // Reusable buffer for the edges of an alternating path
+    private int[] path = new int[16];
+
+    EulerPartition(Graph graph) {
+        this.graph = graph;
+        this.localId = new int[graph.n()];
+        this.stamp = new int[graph.n()];
+    }
+
+    // Splits the edges into two halves such that each vertex of degree d has degree at most ceil(d / 2) in both when
+    // the graph is bipartite. Otherwise a closed walk of odd length puts its first and last edges in the same half, so
+    // its start vertex can have ceil(d / 2) + 1 edges in one half (each vertex starts at most one closed walk).
+    int[][] split(int[] edges) {
+
+        int k = edges.length;
+        relabel(edges);
+
+        // Local adjacency lists of edge indices
+        int[] offsets = new int[vertices + 1];
+        for (int e = 0; e < k; e++) {
+            offsets[localU[e] + 1]++;
+            offsets[localV[e] + 1]++;
+        }
+        for (int x = 0; x < vertices; x++) {
+            offsets[x + 1] += offsets[x];
+        }
+        int[] next = new int[vertices];
+        System.arraycopy(offsets, 0, next, 0, vertices);
+        int[] incident = new int[2 * k];
+        for (int e = 0; e < k; e++) {
+            incident[next[localU[e]]++] = e;
+            incident[next[localV[e]]++] = e;
+        }
+        System.arraycopy(offsets, 0, next, 0, vertices);
+
+        int[] remaining = new int[vertices];
+        for (int x = 0; x < vertices; x++) {
+            remaining[x] = offsets[x + 1] - offsets[x];
+        }
+
+        // Maximal trails from the vertices of odd degree first, so that every such vertex ends exactly one trail.
+        // The remaining edges form closed walks, which have even length in a bipartite graph. Edges alternate
+        // between the halves along each walk, so every vertex is balanced except at the ends of a trail and at the
+        // start of an odd closed walk.
+        byte[] part = new byte[k];
+        boolean[] used = new boolean[k];
+        int[] sizes = new int[2];
+        for (int pass = 0; pass < 2; pass++) {
+            for (int start = 0; start < vertices; start++) {
+                while (remaining[start] > 0 && (pass == 1 || remaining[start] % 2 == 1)) {
+                    int x = start;
+                    int side = 0;
+                    while (true) {
+                        while (next[x] < offsets[x + 1] && used[incident[next[x]]]) {
+                            next[x]++;
+                        }
+                        if (next[x] == offsets[x + 1]) {
+                            break;
+                        }
+                        int e = incident[next[x]];
+                        used[e] = true;
+                        part[e] = (byte) side;
+                        sizes[side]++;
+                        side ^= 1;
+                        remaining[localU[e]]--;
+                        remaining[localV[e]]--;
+                        x = (localU[e] == x) ? localV[e] : localU[e];
+                    }
+                }
+            }
+        }
+
+        int[][] halves = {new int[sizes[0]], new int[sizes[1]]};
+        int[] filled = new int[2];
+        for (int e = 0; e < k; e++) {
+            halves[part[e]][filled[part[e]]++] = edges[e];
+        }
+        return halves;
+    }
+
+    // Builds the graph of the edges on their local vertex ids, and stores the id of each edge in it in subEdgeIds
+    Graph subgraph(int[] edges, int[] subEdgeIds) {
+        int k = edges.length;
+        relabel(edges);
+        Graph subgraph = new Graph(vertices, localU, localV, k);
+        for (int e = 0; e < k; e++) {
+            subEdgeIds[e] = subgraph.findEdge(localU[e], localV[e]);
+        }
+        return subgraph;
+    }
+
+    // The edges are colored with firstColor, ..., firstColor + delta and have maximum degree at most delta. Recolors
+    // them with firstColor, ..., firstColor + delta - 1 by peeling off the smallest color class.
+    void peel(int[] edges, int[] colors, int delta, int firstColor) {
+
+        int k = edges.length;
+        int lastColor = firstColor + delta;
+
+        int[] classSize = new int[delta + 1];
+        for (int e : edges) {
+            classSize[colors[e] - firstColor]++;
+        }
+        int smallest = 0;
+        for (int c = 1; c <= delta; c++) {
+            if (classSize[c] < classSize[smallest]) {
+                smallest = c;
+            }
+        }
+
+        // Uncolor the smallest class, and move the last class to its color
+        relabel(edges);
+        int[] matching = new int[classSize[smallest]];
+        int size = 0;
+        for (int e = 0; e < k; e++) {
+            int color = colors[edges[e]];
+            if (color == firstColor + smallest) {
+                matching[size++] = e;
+                colors[edges[e]] = 0;
+            } else if (color == lastColor) {
+                colors[edges[e]] = firstColor + smallest;
+            }
+        }
+
+        // Local colors are 1, ..., delta
+        VertexColorTable table = VertexColorTable.create(vertices, k, delta);
+        for (int e = 0; e < k; e++) {
+            int color = colors[edges[e]];
+            if (color != 0) {
+                table.put(localU[e], color - firstColor + 1, e);
+                table.put(localV[e], color - firstColor + 1, e);
+            }
+        }
+
+        for (int i = 0; i < size; i++) {
+            int e = matching[i];
+            int u = localU[e];
+            int v = localV[e];
+            int a = missingColor(table, u, delta);
+            int b = missingColor(table, v, delta);
+
+            // Flip the (a, b)-path from v, which cannot end at u in a bipartite graph, so a becomes missing at v
+            if (a != b && table.contains(v, a)) {
+                flip(table, edges, colors, firstColor, v, a, b);
+            }
+            if (table.contains(u, a) || table.contains(v, a)) {
+                throw new IllegalStateException("Failed to free color " + (firstColor + a - 1) + " at edge " + edges[e] + ". This should not happen if the graph is bipartite and the algorithm is correct.");
+            }
+            colors[edges[e]] = firstColor + a - 1;
+            table.put(u, a, e);
+            table.put(v, a, e);
+        }
+    }
+
+    // Finds a local color in [1, delta] missing at a local vertex, which exists since one of its edges is uncolored
+    private static int missingColor(VertexColorTable table, int x, int delta) {
+        for (int c = 1; c <= delta; c++) {
+            if (!table.contains(x, c)) {
+                return c;
+            }
+        }
+        throw new IllegalStateException("No missing color at a vertex with an uncolored edge. This should not happen if the algorithm is correct.");
+    }
+
+    // Swaps the local colors a and b on the alternating path starting at x with an edge of color a
+    private void flip(VertexColorTable table, int[] edges, int[] colors, int firstColor, int x, int a, int b) {
+
+        int length = 0;
+        int color = a;
+        int e;
+        while ((e = table.get(x, color)) != VertexColorTable.NONE) {
+            if (length == path.length) {
+                path = Arrays.copyOf(path, 2 * length);
+            }
+            path[length++] = e;
+            x = (localU[e] == x) ? localV[e] : localU[e];
+            color = (color == a) ? b : a;
+        }
+
+        for (int i = 0; i < length; i++) {
+            int local = colors[edges[path[i]]] - firstColor + 1;
+            table.remove(localU[path[i]], local);
+            table.remove(localV[path[i]], local);
+        }
+        for (int i = 0; i < length; i++) {
+            int local = (colors[edges[path[i]]] - firstColor + 1 == a) ? b : a;
+            colors[edges[path[i]]] = firstColor + local - 1;
+            table.put(localU[path[i]], local, path[i]);
+            table.put(localV[path[i]], local, path[i]);
+        }
+    }
+
+    // Assigns local ids to the endpoints of the edges
+    private void relabel(int[] edges) {
+
+        int k = edges.length;
+        if (localU.length < k) {
+            localU = new int[k];
+            localV = new int[k];
+        }
+
+        currentStamp++;
+        vertices = 0;
+        for (int e = 0; e < k; e++) {
+            localU[e] = local(graph.edgeU(edges[e]));
+            localV[e] = local(graph.edgeV(edges[e]));
+        }
+    }
+
+    private int local(int vertex) {
+        if (stamp[vertex] != currentStamp) {
+            stamp[vertex] = currentStamp;
+            localId[vertex] = vertices++;
+        }
+        return localId[vertex];
+    }
+}
\ No newline at end of file
@@ -0,0 +1,149 @@
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.IntStream;
+
+// (1 + epsilon)Delta-edge coloring in near-linear time by Euler partitions.
+//
+// The edges are split k times with Euler partitions into 2^k parts. A split gives every vertex of degree d at most
+// ceil(d / 2) + 1 edges in each half (the +1 only at the start of an odd closed walk, which bipartite graphs do not
+// have), so the maximum degree d_k of the parts after k splits satisfies d_k <= d_(k - 1) / 2 + 3 / 2, that is
+// d_k < Delta / 2^k + 3. Each part is colored with its maximum degree + 1 colors by NearLinearVizing, on a palette
+// disjoint from the other parts, for a total of less than Delta + 4 * 2^k colors. With 2^k <= epsilon * Delta / 4 this
+// is at most (1 + epsilon)Delta. The splits take O(m) time per level, and the parts are small graphs of low degree
+// whose alternating paths are short, so a smaller epsilon trades time for colors. The parts are colored in parallel.
+// When epsilon * Delta < 8 there is nothing to split, and the graph is colored with Delta + 1 colors directly.
+public class EulerSplitVizing implements EdgeColoringAlgorithm {
+
+    private final float epsilon;
+    private final long seed;
+    private final int parallelism;
+
+    // Optional instrumentation, null when disabled
+    private ColoringMetrics metrics;
+
+    // Number of parts of the last call to color
+    private int parts;
+
+    public EulerSplitVizing(float epsilon) {
+        this(epsilon, 0, Runtime.getRuntime().availableProcessors());
+    }
+
+    // The parts are colored on 'parallelism' threads, the coloring is the same for a given seed
+    public EulerSplitVizing(float epsilon, long seed, int parallelism) {
+        if (epsilon <= 0) {
+            throw new IllegalArgumentException("Epsilon must be positive.");
+        }
+        if (parallelism < 1) {
+            throw new IllegalArgumentException("Parallelism must be at least 1.");
+        }
+        this.epsilon = epsilon;
+        this.seed = seed;
+        this.parallelism = parallelism;
+    }
+
+    // Record the splitting and coloring phases in metrics (null to disable)
+    public void setMetrics(ColoringMetrics metrics) {
+        this.metrics = metrics;
+    }
+
+    @Override
+    @SuppressWarnings("try")
+    public EdgeColoring color(Graph graph) {
+
+        int levels = levels(epsilon, graph.maxDegree());
+        if (levels == 0) {
+            parts = 1;
+            try (ColoringMetrics.Phase phase = ColoringMetrics.phase(metrics, ColoringMetrics.COLORING)) {
+                return new NearLinearVizing(seed).color(graph);
+            }
+        }
+
+        // Split the edges into 2^levels parts
+        List<int[]> split = new ArrayList<>();
+        try (ColoringMetrics.Phase phase = ColoringMetrics.phase(metrics, ColoringMetrics.CONSTRUCTION)) {
+            int[] edges = new int[graph.m()];
+            for (int e = 0; e < edges.length; e++) {
+                edges[e] = e;
+            }
+            split.add(edges);
+
+            EulerPartition partition = new EulerPartition(graph);
+            for (int level = 0; level < levels; level++) {
+                List<int[]> next = new ArrayList<>(2 * split.size());
+                for (int[] part : split) {
+                    int[][] halves = partition.split(part);
+                    next.add(halves[0]);
+                    next.add(halves[1]);
+                }
+                split = next;
+            }
+        }
+        parts = split.size();
+
+        // Color each part with its own colors 1, ..., maxDegree + 1, the parts are disjoint so they share the array
+        int[] colors = new int[graph.m()];
+        int[] partColors = new int[parts];
+        EdgeColoring coloring;
+        try (ColoringMetrics.Phase phase = ColoringMetrics.phase(metrics, ColoringMetrics.COLORING)) {
+            List<int[]> finalSplit = split;
+            ThreadLocal<EulerPartition> scratch = ThreadLocal.withInitial(() -> new EulerPartition(graph));
+            ForkJoinPool pool = new ForkJoinPool(parallelism);
+            try {
+                pool.submit(() -> IntStream.range(0, parts).parallel().forEach(p ->
+                        partColors[p] = colorPart(scratch.get(), finalSplit.get(p), colors, seed + p))).join();
+            } finally {
+                pool.shutdown();
+            }
+
+            // Shift the colors of each part past the colors of the previous parts
+            int[] firstColor = new int[parts];
+            int maxColor = 0;
+            for (int p = 0; p < parts; p++) {
+                firstColor[p] = maxColor;
+                maxColor += partColors[p];
+            }
+
+            coloring = new EdgeColoring(graph, Math.max(1, maxColor));
+            for (int p = 0; p < parts; p++) {
+                for (int e : finalSplit.get(p)) {
+                    if (!coloring.setEdgeColor(e, firstColor[p] + colors[e])) {
+                        throw new IllegalStateException("Failed to set color " + (firstColor[p] + colors[e]) + " for edge " + e + ". This should not happen if the algorithm is correct.");
+                    }
+                }
+            }
+        }
+
+        return coloring;
+    }
+
+    // Get the number of parts the edges were split into during the last coloring
+    public int getParts() {
+        return parts;
+    }
+
+    // Number of splits such that 2^levels <= epsilon * delta / 4
+    static int levels(float epsilon, int delta) {
+        double parts = epsilon * (double) delta / 4;
+        if (parts < 2) {
+            return 0;
+        }
+        return 63 - Long.numberOfLeadingZeros((long) Math.min(parts, 1L << 30));
+    }
+
+    // Colors the edges of a part with the colors 1, ..., maxDegree + 1 of their subgraph, and returns the number of colors
+    private static int colorPart(EulerPartition partition, int[] edges, int[] colors, long seed) {
+
+        if (edges.length == 0) {
+            return 0;
+        }
+
+        int[] subEdgeIds = new int[edges.length];
+        Graph subgraph = partition.subgraph(edges, subEdgeIds);
+        EdgeColoring subColoring = new NearLinearVizing(seed).color(subgraph);
+        for (int e = 0; e < edges.length; e++) {
+            colors[edges[e]] = subColoring.getEdgeColor(subEdgeIds[e]);
+        }
+        return subColoring.maxColor();
+    }
+}
\ No newline at end of file
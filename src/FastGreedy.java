@@ -1,46 +1,327 @@
-import java.util.HashMap;
+import java.nio.file.Path;
 import java.util.Random;
-import java.util.Set;
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+import java.util.random.RandomGenerator;
+import java.util.stream.IntStream;
 
 public class FastGreedy implements EdgeColoringAlgorithm {
 
+    // How an edge picks a color that is free at both of its endpoints
+    public enum Selection {
+
+        // Sample colors in [1, maxColor] until one is free at both endpoints
+        SAMPLING,
+
+        // Pick a free color uniformly at random by intersecting bitsets of used colors, see ColorSelector
+        RANDOM,
+
+        // Pick the smallest free color by intersecting bitsets of used colors
+        FIRST_FIT
+    }
+
+    // Number of edges handled by one random generator in a round of the parallel mode
+    private static final int CHUNK_SIZE = 4096;
+
     private float epsilon;
 
+    // Parallel mode: seed of the random choices and number of worker threads (0 for the sequential algorithm)
+    private long seed;
+    private int parallelism;
+
+    // Optional instrumentation, null when disabled
+    private ColoringMetrics metrics;
+
+    // Optional periodic checkpoint of the partial coloring, null when disabled
+    private ColoringCheckpoint checkpoint;
+
+    // Off-heap storage of the colorings, null to store them on the heap
+    private OffHeapStorage storage;
+
+    private Selection selection = Selection.SAMPLING;
+
     // Constructor to initialize the FastGreedy algorithm that computes a (2 + epsilon)Delta-edge coloring
     public FastGreedy(float epsilon) {
 
         this.epsilon = epsilon;
     }
 
+    // Constructor for the parallel round-based mode on 'parallelism' threads, reproducible for a given seed
+    public FastGreedy(float epsilon, long seed, int parallelism) {
+
+        if (parallelism < 1) {
+            throw new IllegalArgumentException("Parallelism must be at least 1.");
+        }
+
+        this.epsilon = epsilon;
+        this.seed = seed;
+        this.parallelism = parallelism;
+    }
+
+    // Record the phases and the retries per edge of the following runs in metrics (null to disable)
+    public void setMetrics(ColoringMetrics metrics) {
+        this.metrics = metrics;
+    }
+
+    // Save the partial coloring to path at most every intervalMillis during the following runs (null to disable).
+    // A run resumes from the coloring in path if it exists, and deletes the file once it completes.
+    public void setCheckpoint(Path path, long intervalMillis) {
+        this.checkpoint = (path == null) ? null : new ColoringCheckpoint(path, intervalMillis);
+    }
+
+    // Store the colorings of the following runs off-heap in storage (null for the heap)
+    public void setStorage(OffHeapStorage storage) {
+        this.storage = storage;
+    }
+
+    // Choose how the following runs pick the color of an edge (SAMPLING by default)
+    public void setSelection(Selection selection) {
+        this.selection = selection;
+    }
+
     @Override
+    @SuppressWarnings("try")
     public EdgeColoring color(Graph graph) {
 
         // Create an empty (2 + epsilon)Delta-edge coloring
         int maxColor = (int)Math.ceil((2 + epsilon) * graph.maxDegree());
 
-        EdgeColoring coloring = new EdgeColoring(graph, maxColor);
+        EdgeColoring coloring;
+        try (ColoringMetrics.Phase phase = ColoringMetrics.phase(metrics, ColoringMetrics.CONSTRUCTION)) {
+            coloring = (checkpoint != null) ? checkpoint.resume(graph, maxColor, storage) : new EdgeColoring(graph, maxColor, storage);
+            coloring.setMetrics(metrics);
+        }
+
+        try (ColoringMetrics.Phase phase = ColoringMetrics.phase(metrics, ColoringMetrics.COLORING)) {
+            if (parallelism > 0) {
+                colorInRounds(graph, coloring, maxColor);
+            } else {
+                colorSequentially(graph, coloring, maxColor);
+            }
+        }
+
+        if (checkpoint != null) {
+            checkpoint.finish();
+        }
+
+        return coloring;
+    }
+
+    private void colorSequentially(Graph graph, EdgeColoring coloring, int maxColor) {
 
         // Greedily color each edge
         Random rand = new Random();
+        ColorSelector selector = (selection == Selection.SAMPLING) ? null : ColorSelector.of(coloring);
+
+        for (int u = 0; u < graph.n(); u++) {
+            if (checkpoint != null) {
+                checkpoint.tick(coloring);
+            }
 
-        HashMap<Integer, Set<Integer>> edges = graph.getEdges();
+            for (int i = 0; i < graph.degree(u); i++) {
+                int v = graph.neighbor(u, i);
+                int edgeId = graph.edgeId(u, i);
 
-        for (Integer u : edges.keySet()) {
-            for (Integer v : edges.get(u)) {
+                if (selector != null) {
+                    if (coloring.getEdgeColor(edgeId) == 0) {
+                        int color = select(selector, selection, u, v, edgeId, rand);
+                        coloring.setEdgeColor(edgeId, color);
+                        selector.markUsed(u, color);
+                        selector.markUsed(v, color);
+                        if (metrics != null) {
+                            metrics.recordGreedyRetries(0);
+                        }
+                    }
+                    continue;
+                }
 
                 // While the edge is not colored, randomly sample a color
-                while (coloring.getEdgeColor(u, v) == 0) {
-                    
-                    Integer color = rand.nextInt(maxColor) + 1;
+                int retries = -1;
+                while (coloring.getEdgeColor(edgeId) == 0) {
+
+                    int color = rand.nextInt(maxColor) + 1;
+                    retries++;
 
                     // If the color is missing for both vertices, color the edge
                     if (coloring.isMissing(u, color) && coloring.isMissing(v, color)) {
-                        coloring.setEdgeColor(u, v, color);
+                        coloring.setEdgeColor(edgeId, color);
                     }
                 }
+
+                if (metrics != null && retries >= 0) {
+                    metrics.recordGreedyRetries(retries);
+                }
             }
         }
+    }
 
-        return coloring;
+    // Picks a color free at both endpoints of an uncolored edge with the selector
+    private static int select(ColorSelector selector, Selection selection, int u, int v, int edgeId, RandomGenerator rand) {
+        int color = (selection == Selection.FIRST_FIT) ? selector.firstFit(u, v) : selector.random(u, v, rand);
+        if (color == 0) {
+            throw new IllegalStateException("No free color for edge " + edgeId + ". This should not happen if the algorithm is correct.");
+        }
+        return color;
+    }
+
+    // Parallel mode. In each round every uncolored edge proposes a color that is missing at both of its endpoints,
+    // picked by the selection (with SAMPLING, an edge whose sampled color is not free sits the round out). At each
+    // vertex, the edge with the smallest id wins among the edges proposing the same color, and an edge is colored if
+    // it wins at both endpoints. The random choices of a round are drawn per chunk of edges from generators derived
+    // from the seed, so the result does not depend on the number of threads.
+    private void colorInRounds(Graph graph, EdgeColoring coloring, int maxColor) {
+
+        int m = graph.m();
+        int[] proposal = new int[m];
+        byte[] rejected = new byte[m];
+        byte[] colored = new byte[m];
+
+        // Per-thread scratch: for each color, the stamp of the vertex that saw it last and the smallest proposing edge
+        ThreadLocal<int[][]> scratch = ThreadLocal.withInitial(() -> new int[][] {new int[maxColor + 1], new int[maxColor + 1]});
+
+        // Edges colored before the first round, when resuming from a checkpoint, are already settled
+        for (int edgeId = 0; edgeId < m; edgeId++) {
+            colored[edgeId] = (byte) ((coloring.getEdgeColor(edgeId) != 0) ? 1 : 0);
+        }
+
+        int[] remaining = IntStream.range(0, m).filter(edgeId -> colored[edgeId] == 0).toArray();
+        int[] active = IntStream.range(0, graph.n()).filter(u -> {
+            for (int i = 0; i < graph.degree(u); i++) {
+                if (colored[graph.edgeId(u, i)] == 0) {
+                    return true;
+                }
+            }
+            return false;
+        }).toArray();
+        boolean concurrentCommit = coloring.supportsConcurrentVertexUpdates();
+        ColorSelector selector = (selection == Selection.SAMPLING) ? null : ColorSelector.of(coloring);
+
+        // The retries of an edge are the rounds before the one in which it is colored
+        ColoringMetrics metrics = this.metrics;
+
+        ForkJoinPool pool = new ForkJoinPool(parallelism);
+        try {
+            for (int round = 0; remaining.length > 0; round++) {
+
+                final int[] edges = remaining;
+                final int[] vertices = active;
+                final int retries = round;
+                final long roundSeed = seed + round * 0x9E3779B97F4A7C15L;
+
+                // First fit makes all edges at a vertex propose the same colors, so after the first round the edges
+                // that lost pick at random
+                final Selection roundSelection = (round == 0) ? selection : Selection.RANDOM;
+
+                // Every uncolored edge samples a color, and proposes it if it is missing at both endpoints
+                pool.submit(() -> IntStream.range(0, (edges.length + CHUNK_SIZE - 1) / CHUNK_SIZE).parallel().forEach(chunk -> {
+                    SplittableRandom rand = new SplittableRandom(roundSeed ^ (chunk * 0xBF58476D1CE4E5B9L));
+                    int end = Math.min(edges.length, (chunk + 1) * CHUNK_SIZE);
+                    for (int k = chunk * CHUNK_SIZE; k < end; k++) {
+                        int edgeId = edges[k];
+                        if (selector != null) {
+                            proposal[edgeId] = select(selector, roundSelection, graph.edgeU(edgeId), graph.edgeV(edgeId), edgeId, rand);
+                        } else {
+                            int color = rand.nextInt(maxColor) + 1;
+                            boolean free = coloring.isMissing(graph.edgeU(edgeId), color) && coloring.isMissing(graph.edgeV(edgeId), color);
+                            proposal[edgeId] = free ? color : 0;
+                        }
+                        rejected[edgeId] = 0;
+                    }
+                })).join();
+
+                // Resolve conflicting proposals at each vertex in favor of the smallest edge id
+                pool.submit(() -> IntStream.range(0, vertices.length).parallel().forEach(k -> {
+                    int u = vertices[k];
+                    int[][] buffers = scratch.get();
+                    int[] stamp = buffers[0];
+                    int[] winner = buffers[1];
+                    int degree = graph.degree(u);
+                    for (int i = 0; i < degree; i++) {
+                        int edgeId = graph.edgeId(u, i);
+                        int color = proposal[edgeId];
+                        if (colored[edgeId] != 0 || color == 0) {
+                            continue;
+                        }
+                        if (stamp[color] != u + 1 || edgeId < winner[color]) {
+                            stamp[color] = u + 1;
+                            winner[color] = edgeId;
+                        }
+                    }
+                    for (int i = 0; i < degree; i++) {
+                        int edgeId = graph.edgeId(u, i);
+                        int color = proposal[edgeId];
+                        if (colored[edgeId] == 0 && color != 0 && winner[color] != edgeId) {
+                            rejected[edgeId] = 1;
+                        }
+                    }
+                    // Stamps are vertex ids, so they must be cleared before the thread sees this vertex again
+                    for (int i = 0; i < degree; i++) {
+                        int color = proposal[graph.edgeId(u, i)];
+                        if (color != 0) {
+                            stamp[color] = 0;
+                        }
+                    }
+                })).join();
+
+                // Commit the winning proposals, each vertex updating only its own state
+                if (concurrentCommit) {
+                    pool.submit(() -> IntStream.range(0, vertices.length).parallel().forEach(k -> {
+                        int u = vertices[k];
+                        for (int i = 0; i < graph.degree(u); i++) {
+                            int edgeId = graph.edgeId(u, i);
+                            if (colored[edgeId] == 0 && proposal[edgeId] != 0 && rejected[edgeId] == 0) {
+                                coloring.assignColorAtVertex(u, edgeId, proposal[edgeId]);
+                                if (selector != null) {
+                                    selector.markUsed(u, proposal[edgeId]);
+                                }
+                                if (graph.edgeU(edgeId) == u) {
+                                    coloring.assignEdgeColor(edgeId, proposal[edgeId]);
+                                    if (metrics != null) {
+                                        metrics.recordGreedyRetries(retries);
+                                    }
+                                }
+                            }
+                        }
+                    })).join();
+                } else {
+                    for (int edgeId : edges) {
+                        if (proposal[edgeId] != 0 && rejected[edgeId] == 0) {
+                            coloring.setEdgeColor(edgeId, proposal[edgeId]);
+                            if (selector != null) {
+                                selector.markUsed(graph.edgeU(edgeId), proposal[edgeId]);
+                                selector.markUsed(graph.edgeV(edgeId), proposal[edgeId]);
+                            }
+                            if (metrics != null) {
+                                metrics.recordGreedyRetries(retries);
+                            }
+                        }
+                    }
+                }
+
+                // Keep the uncolored edges and the vertices incident on them, in a deterministic order
+                remaining = pool.submit(() -> IntStream.of(edges).parallel().filter(edgeId -> {
+                    if (proposal[edgeId] != 0 && rejected[edgeId] == 0) {
+                        colored[edgeId] = 1;
+                        return false;
+                    }
+                    return true;
+                }).toArray()).join();
+                active = pool.submit(() -> IntStream.of(vertices).parallel().filter(u -> {
+                    for (int i = 0; i < graph.degree(u); i++) {
+                        if (colored[graph.edgeId(u, i)] == 0) {
+                            return true;
+                        }
+                    }
+                    return false;
+                }).toArray()).join();
+
+                // All commits of the round are done, so the coloring is proper here
+                if (checkpoint != null) {
+                    checkpoint.tick(coloring);
+                }
+            }
+        } finally {
+            pool.shutdown();
+        }
     }
 }
\ No newline at end of file
@@ -1,13 +1,12 @@
-import java.util.ArrayList;
-import java.util.Collections;
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.HashSet;
-import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.stream.IntStream;
 
 public class Graph {
-    
+
     // Number of vertices in the graph
     private int n;
 
@@ -17,27 +16,179 @@ public class Graph {
     // Maximum degree of the graph
     private int maxDegree;
 
-    // Map to store the edges of the graph
+    // Compressed sparse row adjacency: the neighbors of u are neighbors[offsets[u]] ... neighbors[offsets[u + 1] - 1], sorted ascending
+    private int[] offsets;
+    private int[] neighbors;
+
+    // Edge id of each adjacency slot, so that both slots of an edge share the same id
+    private int[] slotEdgeIds;
+
+    // Endpoints of each edge id, with edgeU[e] < edgeV[e]
+    private int[] edgeU;
+    private int[] edgeV;
+
+    // Map to store the edges of the graph, only materialized on demand by getEdges()
     private HashMap<Integer, Set<Integer>> edges;
 
     public Graph(int n) {
         this.n = n;
         this.m = 0;
+        this.maxDegree = 0;
+        this.offsets = new int[n + 1];
+        this.neighbors = new int[0];
+        this.slotEdgeIds = new int[0];
+        this.edgeU = new int[0];
+        this.edgeV = new int[0];
     }
 
+    // Compatibility adapter: builds the adjacency arrays from a map of neighbor sets
     public Graph(HashMap<Integer, Set<Integer>> edges) {
-        this.n = edges.size();
+
+        // Vertices are expected to be labelled 0, ..., n - 1
+        int n = edges.size();
+        int slots = 0;
+        for (Map.Entry<Integer, Set<Integer>> entry : edges.entrySet()) {
+            n = Math.max(n, entry.getKey() + 1);
+            for (Integer v : entry.getValue()) {
+                n = Math.max(n, v + 1);
+            }
+            slots += entry.getValue().size();
+        }
+
+        // Each edge (u, v) is inserted in both directions, duplicates are removed when the adjacency is finalized
+        int[] us = new int[slots];
+        int[] vs = new int[slots];
+        int i = 0;
+        for (Map.Entry<Integer, Set<Integer>> entry : edges.entrySet()) {
+            int u = entry.getKey();
+            for (Integer v : entry.getValue()) {
+                us[i] = u;
+                vs[i] = v;
+                i++;
+            }
+        }
+
+        buildFromEdgeList(n, us, vs, slots);
         this.edges = edges;
+    }
+
+    // Builds a graph on vertices 0, ..., n - 1 from the edge list (us[i], vs[i]), self-loops and duplicate edges are dropped
+    public Graph(int n, int[] us, int[] vs) {
+        if (us.length != vs.length) {
+            throw new IllegalArgumentException("Edge endpoint arrays must have the same length.");
+        }
+        buildFromEdgeList(n, us, vs, us.length);
+    }
+
+    // Builds a graph from the first 'count' entries of the edge list (us[i], vs[i])
+    public Graph(int n, int[] us, int[] vs, int count) {
+        if (count > us.length || count > vs.length) {
+            throw new IllegalArgumentException("Edge endpoint arrays must hold at least " + count + " entries.");
+        }
+        buildFromEdgeList(n, us, vs, count);
+    }
 
+    private Graph() {
+    }
+
+    // For subclasses that store the adjacency themselves and override the accessors
+    Graph(int n, int m, int maxDegree) {
+        this.n = n;
+        this.m = m;
+        this.maxDegree = maxDegree;
+    }
+
+    // Builds a graph from a symmetric adjacency in CSR form (rows may be unsorted and contain duplicates or self-loops)
+    static Graph fromAdjacency(int n, int[] offsets, int[] neighbors) {
+        Graph graph = new Graph();
+        graph.finalizeAdjacency(n, offsets, neighbors);
+        return graph;
+    }
+
+    private void buildFromEdgeList(int n, int[] us, int[] vs, int count) {
+
+        // Count the degree of each vertex, inserting every edge in both directions
+        int[] offsets = new int[n + 1];
+        for (int i = 0; i < count; i++) {
+            checkVertex(us[i], n);
+            checkVertex(vs[i], n);
+            offsets[us[i] + 1]++;
+            offsets[vs[i] + 1]++;
+        }
+        for (int u = 0; u < n; u++) {
+            offsets[u + 1] += offsets[u];
+        }
+
+        // Fill the rows
+        int[] neighbors = new int[offsets[n]];
+        int[] cursor = Arrays.copyOf(offsets, n);
+        for (int i = 0; i < count; i++) {
+            neighbors[cursor[us[i]]++] = vs[i];
+            neighbors[cursor[vs[i]]++] = us[i];
+        }
+
+        finalizeAdjacency(n, offsets, neighbors);
+    }
+
+    private static void checkVertex(int u, int n) {
+        if (u < 0 || u >= n) {
+            throw new IllegalArgumentException("Vertex " + u + " is out of range [0, " + n + ").");
+        }
+    }
+
+    // Sorts each row, removes self-loops and duplicates in place, and assigns an id to every edge
+    private void finalizeAdjacency(int n, int[] offsets, int[] neighbors) {
+
+        // Rows are independent, so they are sorted in parallel before being compacted in order
+        IntStream.range(0, n).parallel().forEach(u -> Arrays.sort(neighbors, offsets[u], offsets[u + 1]));
+
+        int write = 0;
         int maxDegree = 0;
-        int m = 0;
-        for (Integer u : edges.keySet()) {
-            Set<Integer> neighbors = edges.get(u);
-            m += neighbors.size();
-            maxDegree = Math.max(maxDegree, neighbors.size());
+        for (int u = 0; u < n; u++) {
+            int start = offsets[u];
+            int end = offsets[u + 1];
+
+            offsets[u] = write;
+            int previous = -1;
+            for (int i = start; i < end; i++) {
+                int v = neighbors[i];
+                if (v != u && v != previous) {
+                    neighbors[write++] = v;
+                }
+                previous = v;
+            }
+            maxDegree = Math.max(maxDegree, write - offsets[u]);
         }
-        this.m = m / 2; // Each edge is counted twice
+        offsets[n] = write;
+
+        this.n = n;
+        this.m = write / 2; // Each edge is stored twice
         this.maxDegree = maxDegree;
+        this.offsets = offsets;
+        this.neighbors = (write == neighbors.length) ? neighbors : Arrays.copyOf(neighbors, write);
+
+        // Assign edge ids in order of the smaller endpoint. Rows are sorted, so when row u is scanned in increasing
+        // order of u, the slots of each smaller neighbor v pointing to u are reached in order as well.
+        this.slotEdgeIds = new int[write];
+        this.edgeU = new int[m];
+        this.edgeV = new int[m];
+
+        int[] next = new int[n];
+        int id = 0;
+        for (int u = 0; u < n; u++) {
+            int end = offsets[u + 1];
+            int i = offsets[u];
+            for (; i < end && this.neighbors[i] < u; i++) {
+                int v = this.neighbors[i];
+                slotEdgeIds[i] = slotEdgeIds[next[v]++];
+            }
+            next[u] = i;
+            for (; i < end; i++) {
+                edgeU[id] = u;
+                edgeV[id] = this.neighbors[i];
+                slotEdgeIds[i] = id++;
+            }
+        }
     }
 
     // Get the number of vertices in the graph
@@ -55,8 +206,65 @@ public class Graph {
         return maxDegree;
     }
 
+    // Get the degree of a vertex
+    public int degree(int u) {
+        return offsets[u + 1] - offsets[u];
+    }
+
+    // Get the ith neighbor of a vertex, for 0 <= i < degree(u)
+    public int neighbor(int u, int i) {
+        return neighbors[offsets[u] + i];
+    }
+
+    // Get the id of the edge to the ith neighbor of a vertex
+    public int edgeId(int u, int i) {
+        return slotEdgeIds[offsets[u] + i];
+    }
+
+    // Get the smaller endpoint of an edge
+    public int edgeU(int edgeId) {
+        return edgeU[edgeId];
+    }
+
+    // Get the larger endpoint of an edge
+    public int edgeV(int edgeId) {
+        return edgeV[edgeId];
+    }
+
+    // Get the endpoint of an edge that is not 'vertex'
+    public int other(int edgeId, int vertex) {
+        return edgeU[edgeId] ^ edgeV[edgeId] ^ vertex;
+    }
+
+    // Get the id of the edge (u, v), or -1 if it is not in the graph
+    public int findEdge(int u, int v) {
+        if (u < 0 || u >= n || v < 0 || v >= n) {
+            return -1;
+        }
+
+        // Search the shorter of the two sorted rows
+        if (degree(u) > degree(v)) {
+            int t = u;
+            u = v;
+            v = t;
+        }
+        int slot = Arrays.binarySearch(neighbors, offsets[u], offsets[u + 1], v);
+        return (slot >= 0) ? slotEdgeIds[slot] : -1;
+    }
+
     // Get the edges of the graph
     public HashMap<Integer, Set<Integer>> getEdges() {
+        if (edges == null) {
+            HashMap<Integer, Set<Integer>> edges = new HashMap<Integer, Set<Integer>>();
+            for (int u = 0; u < n; u++) {
+                Set<Integer> neighborSet = new HashSet<Integer>();
+                for (int i = 0; i < degree(u); i++) {
+                    neighborSet.add(neighbor(u, i));
+                }
+                edges.put(u, neighborSet);
+            }
+            this.edges = edges;
+        }
         return edges;
     }
 }
@@ -0,0 +1,481 @@
+import java.util.Arrays;
+import java.util.SplittableRandom;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.stream.IntStream;
+
+// Seeded random graph families, built directly from primitive edge lists.
+//
+// Every generator splits its work into chunks of about CHUNK_EDGES edges, and each chunk draws from its own generator
+// derived from the seed and the chunk number. The chunks are generated and turned into adjacency rows in parallel, and
+// since the chunks do not depend on the number of threads, a seed always gives the same graph.
+public class GraphGenerator {
+
+    // Expected number of edges generated by a chunk
+    private static final int CHUNK_EDGES = 1 << 20;
+
+    // Random graph with n vertices and exactly m edges (at most n(n - 1) / 2), uniform among all such graphs.
+    // Pairs are sampled with replacement in rounds until there are m distinct edges, and the surplus of the last round
+    // is removed at random. When more than half of the pairs are edges, the missing pairs are sampled instead.
+    public static Graph gnm(int n, long m, long seed) {
+
+        long pairs = (long) n * (n - 1) / 2;
+        if (m < 0 || m > pairs) {
+            throw new IllegalArgumentException("Number of edges must be between 0 and " + pairs + ".");
+        }
+        if (2 * m > pairs) {
+            return complement(gnm(n, pairs - m, seed));
+        }
+
+        Graph graph = new Graph(n);
+        for (int round = 0; graph.m() < m; round++) {
+
+            // Oversample so that a round is expected to reach m distinct edges despite duplicates
+            long missing = m - graph.m();
+            double fresh = (double) (pairs - graph.m()) / pairs;
+            long samples = (long) Math.min(Integer.MAX_VALUE - 8, Math.ceil(missing / fresh * 1.02) + 16);
+
+            long roundSeed = seed + round * 0x9E3779B97F4A7C15L;
+            int chunks = (int) ((samples + CHUNK_EDGES - 1) / CHUNK_EDGES);
+            EdgeBuffer[] buffers = new EdgeBuffer[chunks + 1];
+            IntStream.range(0, chunks).parallel().forEach(chunk -> {
+                SplittableRandom rand = chunkRandom(roundSeed, chunk);
+                long count = samples * (chunk + 1) / chunks - samples * chunk / chunks;
+                EdgeBuffer buffer = new EdgeBuffer(count);
+                for (long i = 0; i < count; i++) {
+                    int u = rand.nextInt(n);
+                    int v = rand.nextInt(n);
+                    while (u == v) {
+                        v = rand.nextInt(n);
+                    }
+                    buffer.add(u, v);
+                }
+                buffers[chunk] = buffer;
+            });
+
+            // The distinct edges of the previous rounds
+            buffers[chunks] = edges(graph);
+            graph = build(n, buffers);
+        }
+
+        return (graph.m() == m) ? graph : removeRandomEdges(graph, graph.m() - m, chunkRandom(seed, -1));
+    }
+
+    // Erdos-Renyi graph where every edge is present independently with probability p. The candidate pairs are
+    // skipped over with geometrically distributed gaps, so the time is proportional to the number of edges.
+    public static Graph gnp(int n, double p, long seed) {
+        return sample(n, new RowSpace() {
+            public int rows() { return n; }
+            public int width(int row) { return n - 1 - row; }
+            public int vertex(int row) { return row; }
+            public int neighbor(int row, int index) { return row + 1 + index; }
+        }, p, seed);
+    }
+
+    // Random bipartite graph between the even and the odd vertices, every edge present with probability p
+    public static Graph bipartite(int n, double p, long seed) {
+        int odds = n / 2;
+        return sample(n, new RowSpace() {
+            public int rows() { return (n + 1) / 2; }
+            public int width(int row) { return odds; }
+            public int vertex(int row) { return 2 * row; }
+            public int neighbor(int row, int index) { return 2 * index + 1; }
+        }, p, seed);
+    }
+
+    // Random (nearly) d-regular graph from the configuration model, self-loops and parallel edges are dropped
+    public static Graph regular(int n, int d, long seed) {
+
+        if (d < 0 || (long) n * d > Integer.MAX_VALUE - 8) {
+            throw new IllegalArgumentException("Degree must be non-negative and n * d must fit in an array.");
+        }
+
+        int[] stubs = new int[n * d];
+        IntStream.range(0, n).parallel().forEach(u -> Arrays.fill(stubs, u * d, (u + 1) * d, u));
+        int[] pairing = shuffle(stubs, chunkRandom(seed, 0).nextLong());
+
+        int pairs = pairing.length / 2;
+        int chunks = Math.max(1, (pairs + CHUNK_EDGES - 1) / CHUNK_EDGES);
+        EdgeBuffer[] buffers = new EdgeBuffer[chunks];
+        IntStream.range(0, chunks).parallel().forEach(chunk -> {
+            int start = (int) ((long) pairs * chunk / chunks);
+            int end = (int) ((long) pairs * (chunk + 1) / chunks);
+            EdgeBuffer buffer = new EdgeBuffer(end - start);
+            for (int i = start; i < end; i++) {
+                buffer.add(pairing[2 * i], pairing[2 * i + 1]);
+            }
+            buffers[chunk] = buffer;
+        });
+        return build(n, buffers);
+    }
+
+    // Random (nearly) d-regular bipartite graph between the even and the odd vertices, the union of d random perfect
+    // matchings with parallel edges dropped. If n is odd the last vertex is isolated.
+    public static Graph regularBipartite(int n, int d, long seed) {
+
+        int side = n / 2;
+        if (d < 0 || d > side) {
+            throw new IllegalArgumentException("Degree must be between 0 and " + side + ".");
+        }
+
+        EdgeBuffer[] buffers = new EdgeBuffer[d];
+        IntStream.range(0, d).parallel().forEach(k -> {
+            SplittableRandom rand = chunkRandom(seed, k);
+            int[] matching = new int[side];
+            for (int i = 0; i < side; i++) {
+                matching[i] = i;
+            }
+            shuffle(matching, rand);
+            EdgeBuffer buffer = new EdgeBuffer(side);
+            for (int i = 0; i < side; i++) {
+                buffer.add(2 * i, 2 * matching[i] + 1);
+            }
+            buffers[k] = buffer;
+        });
+        return build(n, buffers);
+    }
+
+    // Chung-Lu graph with a power-law expected degree sequence of exponent beta and the given average degree
+    public static Graph powerLaw(int n, double averageDegree, double beta, long seed) {
+
+        // Expected degree of vertex i is proportional to (i + 1)^(-1 / (beta - 1))
+        double[] weights = new double[n];
+        double total = 0;
+        for (int i = 0; i < n; i++) {
+            weights[i] = Math.pow(i + 1, -1.0 / (beta - 1));
+            total += weights[i];
+        }
+
+        // Sample m edges with endpoints drawn proportionally to the weights
+        double[] cumulative = new double[n];
+        double sum = 0;
+        for (int i = 0; i < n; i++) {
+            sum += weights[i] / total;
+            cumulative[i] = sum;
+        }
+        long m = (long) (averageDegree * n / 2);
+        int chunks = (int) Math.max(1, (m + CHUNK_EDGES - 1) / CHUNK_EDGES);
+        EdgeBuffer[] buffers = new EdgeBuffer[chunks];
+        IntStream.range(0, chunks).parallel().forEach(chunk -> {
+            SplittableRandom rand = chunkRandom(seed, chunk);
+            long count = m * (chunk + 1) / chunks - m * chunk / chunks;
+            EdgeBuffer buffer = new EdgeBuffer(count);
+            for (long i = 0; i < count; i++) {
+                int u = sample(cumulative, rand.nextDouble());
+                int v = sample(cumulative, rand.nextDouble());
+                if (u != v) {
+                    buffer.add(u, v);
+                }
+            }
+            buffers[chunk] = buffer;
+        });
+        return build(n, buffers);
+    }
+
+    // Grid graph with rows x cols vertices, vertex (r, c) has id r * cols + c
+    public static Graph grid(int rows, int cols) {
+
+        if (rows < 0 || cols < 0 || (long) rows * cols > Integer.MAX_VALUE - 8) {
+            throw new IllegalArgumentException("Grid of " + rows + " x " + cols + " vertices is too large.");
+        }
+
+        int n = rows * cols;
+        int rowsPerChunk = Math.max(1, CHUNK_EDGES / Math.max(1, 2 * cols));
+        int chunks = Math.max(1, (rows + rowsPerChunk - 1) / rowsPerChunk);
+        EdgeBuffer[] buffers = new EdgeBuffer[chunks];
+        IntStream.range(0, chunks).parallel().forEach(chunk -> {
+            int end = Math.min(rows, (chunk + 1) * rowsPerChunk);
+            EdgeBuffer buffer = new EdgeBuffer(2L * cols * (end - chunk * rowsPerChunk));
+            for (int r = chunk * rowsPerChunk; r < end; r++) {
+                for (int c = 0; c < cols; c++) {
+                    int u = r * cols + c;
+                    if (c + 1 < cols) {
+                        buffer.add(u, u + 1);
+                    }
+                    if (r + 1 < rows) {
+                        buffer.add(u, u + cols);
+                    }
+                }
+            }
+            buffers[chunk] = buffer;
+        });
+        return build(n, buffers);
+    }
+
+    // Candidate edges of a graph laid out in rows: row r holds the pairs (vertex(r), neighbor(r, i)) for i < width(r)
+    interface RowSpace {
+        int rows();
+        int width(int row);
+        int vertex(int row);
+        int neighbor(int row, int index);
+    }
+
+    // Keeps every candidate pair with probability p, jumping from one kept pair to the next with a geometric skip
+    private static Graph sample(int n, RowSpace space, double p, long seed) {
+
+        if (p < 0 || p > 1) {
+            throw new IllegalArgumentException("Edge probability must be between 0 and 1.");
+        }
+
+        // Split the rows into chunks with about CHUNK_EDGES expected edges each
+        int rows = space.rows();
+        long candidates = 0;
+        for (int row = 0; row < rows; row++) {
+            candidates += space.width(row);
+        }
+        int chunks = (int) Math.max(1, Math.min(rows, Math.ceil(p * candidates / CHUNK_EDGES)));
+        int[] bounds = new int[chunks + 1];
+        long seen = 0;
+        int chunk = 1;
+        for (int row = 0; row < rows && chunk < chunks; row++) {
+            seen += space.width(row);
+            while (chunk < chunks && seen >= candidates * chunk / chunks) {
+                bounds[chunk++] = row + 1;
+            }
+        }
+        while (chunk <= chunks) {
+            bounds[chunk++] = rows;
+        }
+
+        double logQ = Math.log1p(-p);
+        long expectedPerChunk = (long) (1.05 * p * candidates / chunks);
+        EdgeBuffer[] buffers = new EdgeBuffer[chunks];
+        IntStream.range(0, chunks).parallel().forEach(c -> {
+            SplittableRandom rand = chunkRandom(seed, c);
+            EdgeBuffer buffer = new EdgeBuffer(expectedPerChunk);
+            if (p > 0) {
+                int row = bounds[c];
+                long index = -1;
+                while (row < bounds[c + 1]) {
+                    index += 1 + skip(rand, logQ);
+                    while (row < bounds[c + 1] && index >= space.width(row)) {
+                        index -= space.width(row);
+                        row++;
+                    }
+                    if (row < bounds[c + 1]) {
+                        buffer.add(space.vertex(row), space.neighbor(row, (int) index));
+                    }
+                }
+            }
+            buffers[c] = buffer;
+        });
+        return build(n, buffers);
+    }
+
+    // Number of rejected candidates before the next kept one, geometric with success probability 1 - exp(logQ)
+    private static long skip(SplittableRandom rand, double logQ) {
+        if (logQ == Double.NEGATIVE_INFINITY) {
+            return 0; // p = 1
+        }
+        return (long) Math.min(1e18, Math.floor(Math.log1p(-rand.nextDouble()) / logQ));
+    }
+
+    // Removes 'count' edges chosen uniformly at random
+    private static Graph removeRandomEdges(Graph graph, long count, SplittableRandom rand) {
+        int m = graph.m();
+        boolean[] removed = new boolean[m];
+        for (long k = 0; k < count; k++) {
+            int edgeId = rand.nextInt(m);
+            while (removed[edgeId]) {
+                edgeId = rand.nextInt(m);
+            }
+            removed[edgeId] = true;
+        }
+        EdgeBuffer buffer = new EdgeBuffer(m - count);
+        for (int edgeId = 0; edgeId < m; edgeId++) {
+            if (!removed[edgeId]) {
+                buffer.add(graph.edgeU(edgeId), graph.edgeV(edgeId));
+            }
+        }
+        return build(graph.n(), new EdgeBuffer[] {buffer});
+    }
+
+    // Graph on the same vertices with exactly the pairs that are not edges of the graph
+    private static Graph complement(Graph graph) {
+        int n = graph.n();
+        int chunks = (int) Math.max(1, Math.min(n, ((long) n * (n - 1) / 2 - graph.m()) / CHUNK_EDGES));
+        EdgeBuffer[] buffers = new EdgeBuffer[chunks];
+        IntStream.range(0, chunks).parallel().forEach(chunk -> {
+            EdgeBuffer buffer = new EdgeBuffer(0);
+            int end = (int) ((long) n * (chunk + 1) / chunks);
+            for (int u = (int) ((long) n * chunk / chunks); u < end; u++) {
+
+                // Rows are sorted, so the neighbors above u are skipped with a single cursor
+                int i = 0;
+                while (i < graph.degree(u) && graph.neighbor(u, i) <= u) {
+                    i++;
+                }
+                for (int v = u + 1; v < n; v++) {
+                    if (i < graph.degree(u) && graph.neighbor(u, i) == v) {
+                        i++;
+                    } else {
+                        buffer.add(u, v);
+                    }
+                }
+            }
+            buffers[chunk] = buffer;
+        });
+        return build(n, buffers);
+    }
+
+    // Get the edges of a graph as an edge list
+    private static EdgeBuffer edges(Graph graph) {
+        EdgeBuffer buffer = new EdgeBuffer(graph.m());
+        for (int edgeId = 0; edgeId < graph.m(); edgeId++) {
+            buffer.add(graph.edgeU(edgeId), graph.edgeV(edgeId));
+        }
+        return buffer;
+    }
+
+    // Builds the adjacency rows of the edges in parallel. Self-loops and duplicates are removed by the graph.
+    static Graph build(int n, EdgeBuffer[] buffers) {
+
+        AtomicIntegerArray degrees = new AtomicIntegerArray(n);
+        IntStream.range(0, buffers.length).parallel().forEach(chunk -> {
+            EdgeBuffer buffer = buffers[chunk];
+            for (int i = 0; i < buffer.size(); i++) {
+                if (buffer.u(i) != buffer.v(i)) {
+                    degrees.incrementAndGet(buffer.u(i));
+                    degrees.incrementAndGet(buffer.v(i));
+                }
+            }
+        });
+
+        int[] offsets = new int[n + 1];
+        for (int u = 0; u < n; u++) {
+            long end = (long) offsets[u] + degrees.get(u);
+            if (end > Integer.MAX_VALUE - 8) {
+                throw new IllegalArgumentException("Graph has too many edges to be stored in arrays.");
+            }
+            offsets[u + 1] = (int) end;
+            degrees.set(u, offsets[u]); // Reuse the counters as the fill cursor of each row
+        }
+
+        int[] neighbors = new int[offsets[n]];
+        IntStream.range(0, buffers.length).parallel().forEach(chunk -> {
+            EdgeBuffer buffer = buffers[chunk];
+            for (int i = 0; i < buffer.size(); i++) {
+                int u = buffer.u(i);
+                int v = buffer.v(i);
+                if (u != v) {
+                    neighbors[degrees.getAndIncrement(u)] = v;
+                    neighbors[degrees.getAndIncrement(v)] = u;
+                }
+            }
+        });
+
+        return Graph.fromAdjacency(n, offsets, neighbors);
+    }
+
+    private static SplittableRandom chunkRandom(long seed, long chunk) {
+        return new SplittableRandom(seed ^ (chunk * 0xBF58476D1CE4E5B9L));
+    }
+
+    private static int sample(double[] cumulative, double x) {
+        int i = Arrays.binarySearch(cumulative, x);
+        return Math.min((i >= 0) ? i : -i - 1, cumulative.length - 1);
+    }
+
+    static void shuffle(int[] array, SplittableRandom rand) {
+        for (int i = array.length - 1; i > 0; i--) {
+            int j = rand.nextInt(i + 1);
+            int t = array[i];
+            array[i] = array[j];
+            array[j] = t;
+        }
+    }
+
+    // Returns a uniformly random permutation of the array, computed in parallel: every element is sent to a random
+    // bucket, and then every bucket is shuffled on its own. The bucket of each element is drawn twice from the same
+    // chunk generator, once to count the bucket sizes and once to scatter, so no bucket ids are stored.
+    static int[] shuffle(int[] array, long seed) {
+
+        int length = array.length;
+        int chunks = Math.max(1, (length + CHUNK_EDGES - 1) / CHUNK_EDGES);
+        int[][] counts = new int[chunks][chunks];
+
+        IntStream.range(0, chunks).parallel().forEach(chunk -> {
+            SplittableRandom rand = chunkRandom(seed, chunk);
+            int end = (int) ((long) length * (chunk + 1) / chunks);
+            for (int i = (int) ((long) length * chunk / chunks); i < end; i++) {
+                counts[chunk][rand.nextInt(chunks)]++;
+            }
+        });
+
+        // Bucket b holds, in order of the chunks, the elements of each chunk sent to b
+        int[] bucketStart = new int[chunks + 1];
+        int position = 0;
+        for (int bucket = 0; bucket < chunks; bucket++) {
+            bucketStart[bucket] = position;
+            for (int chunk = 0; chunk < chunks; chunk++) {
+                int count = counts[chunk][bucket];
+                counts[chunk][bucket] = position;
+                position += count;
+            }
+        }
+        bucketStart[chunks] = position;
+
+        int[] result = new int[length];
+        IntStream.range(0, chunks).parallel().forEach(chunk -> {
+            SplittableRandom rand = chunkRandom(seed, chunk);
+            int[] cursor = counts[chunk];
+            int end = (int) ((long) length * (chunk + 1) / chunks);
+            for (int i = (int) ((long) length * chunk / chunks); i < end; i++) {
+                result[cursor[rand.nextInt(chunks)]++] = array[i];
+            }
+        });
+
+        IntStream.range(0, chunks).parallel().forEach(bucket -> {
+            SplittableRandom rand = chunkRandom(~seed, bucket);
+            for (int i = bucketStart[bucket + 1] - 1; i > bucketStart[bucket]; i--) {
+                int j = bucketStart[bucket] + rand.nextInt(i - bucketStart[bucket] + 1);
+                int t = result[i];
+                result[i] = result[j];
+                result[j] = t;
+            }
+        });
+
+        return result;
+    }
+}
+
+// Growable list of edges stored as two int arrays
+class EdgeBuffer {
+
+    private int[] us;
+    private int[] vs;
+    private int size;
+
+    public EdgeBuffer(long expectedSize) {
+        int capacity = (int) Math.max(16, Math.min(Integer.MAX_VALUE - 8, expectedSize));
+        this.us = new int[capacity];
+        this.vs = new int[capacity];
+    }
+
+    public void add(int u, int v) {
+        if (size == us.length) {
+            int capacity = (int) Math.min(Integer.MAX_VALUE - 8, 2L * size);
+            us = Arrays.copyOf(us, capacity);
+            vs = Arrays.copyOf(vs, capacity);
+        }
+        us[size] = u;
+        vs[size] = v;
+        size++;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    // Get the endpoints of the ith edge
+    public int u(int i) {
+        return us[i];
+    }
+
+    public int v(int i) {
+        return vs[i];
+    }
+
+    public Graph toGraph(int n) {
+        return new Graph(n, us, vs, size);
+    }
+}
\ No newline at end of file
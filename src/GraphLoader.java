@@ -0,0 +1,320 @@
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.stream.IntStream;
+
+// Loads large edge lists from disk into a Graph.
+//
+// The file is memory-mapped in chunks that are parsed in parallel. The graph is built in two passes over the file:
+// the first counts the degree of every vertex, the second fills the adjacency rows. Edges are symmetrized, and
+// self-loops and duplicate edges are removed when the rows are finalized, so no per-edge objects are ever created.
+// Given an OffHeapStorage, the rows are filled off-heap instead, for graphs with more than 2^31 adjacency slots.
+//
+// Supported formats:
+//  - text: one edge "u v" per line, separated by whitespace (SNAP style). Lines starting with '#' or '%' are
+//    comments, and any columns after the first two are ignored.
+//  - binary: consecutive pairs of 32-bit vertex ids.
+public class GraphLoader {
+
+    // Largest number of bytes mapped for a single chunk
+    private static final long MAX_CHUNK_BYTES = 1L << 30;
+
+    // Number of chunks per thread, so that uneven chunks still balance
+    private static final int CHUNKS_PER_THREAD = 4;
+
+    // Loads a text edge list, where the number of vertices is one more than the largest vertex id
+    public static Graph loadText(Path path) throws IOException {
+        return loadText(path, -1, Runtime.getRuntime().availableProcessors());
+    }
+
+    // Loads a text edge list on vertices 0, ..., n - 1 (n <= 0 if unknown, which costs an extra pass over the file)
+    public static Graph loadText(Path path, int n, int threads) throws IOException {
+        return load(path, n, threads, new TextParser(), null);
+    }
+
+    // Loads a little-endian binary edge list, where the number of vertices is one more than the largest vertex id
+    public static Graph loadBinary(Path path) throws IOException {
+        return loadBinary(path, -1, ByteOrder.LITTLE_ENDIAN, Runtime.getRuntime().availableProcessors());
+    }
+
+    // Loads a binary edge list of 32-bit vertex id pairs on vertices 0, ..., n - 1 (n <= 0 if unknown)
+    public static Graph loadBinary(Path path, int n, ByteOrder order, int threads) throws IOException {
+        return load(path, n, threads, new BinaryParser(order), null);
+    }
+
+    // Loads a text edge list into an off-heap graph, see OffHeapGraph
+    public static Graph loadText(Path path, int n, int threads, OffHeapStorage storage) throws IOException {
+        return load(path, n, threads, new TextParser(), storage);
+    }
+
+    // Loads a binary edge list into an off-heap graph, see OffHeapGraph
+    public static Graph loadBinary(Path path, int n, ByteOrder order, int threads, OffHeapStorage storage) throws IOException {
+        return load(path, n, threads, new BinaryParser(order), storage);
+    }
+
+    private static Graph load(Path path, int n, int threads, EdgeParser parser, OffHeapStorage storage) throws IOException {
+
+        if (threads < 1) {
+            throw new IllegalArgumentException("Number of threads must be at least 1.");
+        }
+
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+
+            long[] bounds = parser.chunkBounds(channel, threads * CHUNKS_PER_THREAD);
+            int chunks = bounds.length - 1;
+            ForkJoinPool pool = new ForkJoinPool(threads);
+
+            try {
+                // Find the number of vertices if it is not given
+                if (n <= 0) {
+                    int maxId = pool.submit(() -> IntStream.range(0, chunks).parallel().map(chunk -> {
+                        int[] max = {-1};
+                        parser.parse(map(channel, bounds[chunk], bounds[chunk + 1]), (u, v) -> max[0] = Math.max(max[0], Math.max(u, v)));
+                        return max[0];
+                    }).max().orElse(-1)).get();
+                    n = maxId + 1;
+                }
+
+                // First pass: count the degree of every vertex, with each edge inserted in both directions
+                final int vertices = n;
+                AtomicIntegerArray degrees = new AtomicIntegerArray(vertices);
+                pool.submit(() -> IntStream.range(0, chunks).parallel().forEach(chunk ->
+                    parser.parse(map(channel, bounds[chunk], bounds[chunk + 1]), (u, v) -> {
+                        if (u >= vertices || v >= vertices) {
+                            throw new IllegalArgumentException("Edge (" + u + ", " + v + ") has an endpoint outside [0, " + vertices + ").");
+                        }
+                        if (u != v) {
+                            degrees.incrementAndGet(u);
+                            degrees.incrementAndGet(v);
+                        }
+                    }))).get();
+
+                if (storage != null) {
+                    return fillOffHeap(channel, bounds, pool, parser, degrees, storage);
+                }
+
+                int[] offsets = new int[vertices + 1];
+                for (int u = 0; u < vertices; u++) {
+                    long end = (long) offsets[u] + degrees.get(u);
+                    if (end > Integer.MAX_VALUE - 8) {
+                        throw new IllegalArgumentException("Graph has too many edges to be stored in arrays.");
+                    }
+                    offsets[u + 1] = (int) end;
+                    degrees.set(u, offsets[u]); // Reuse the counters as the fill cursor of each row
+                }
+
+                // Second pass: fill the rows
+                int[] neighbors = new int[offsets[vertices]];
+                pool.submit(() -> IntStream.range(0, chunks).parallel().forEach(chunk ->
+                    parser.parse(map(channel, bounds[chunk], bounds[chunk + 1]), (u, v) -> {
+                        if (u != v) {
+                            neighbors[degrees.getAndIncrement(u)] = v;
+                            neighbors[degrees.getAndIncrement(v)] = u;
+                        }
+                    }))).get();
+
+                return Graph.fromAdjacency(vertices, offsets, neighbors);
+
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IOException("Interrupted while loading " + path, e);
+            } catch (ExecutionException e) {
+                Throwable cause = e.getCause();
+                if (cause instanceof UncheckedIOException) {
+                    throw ((UncheckedIOException) cause).getCause();
+                }
+                if (cause instanceof RuntimeException) {
+                    throw (RuntimeException) cause;
+                }
+                throw new IOException("Failed to load " + path, cause);
+            } finally {
+                pool.shutdown();
+            }
+        }
+    }
+
+    // Second pass of an off-heap load, where rows may hold more than 2^31 slots in total
+    private static Graph fillOffHeap(FileChannel channel, long[] bounds, ForkJoinPool pool, EdgeParser parser,
+                                     AtomicIntegerArray degrees, OffHeapStorage storage) throws InterruptedException, ExecutionException {
+
+        int vertices = degrees.length();
+        OffHeapLongArray offsets = storage.allocateLongs(vertices + 1);
+        AtomicLongArray cursors = new AtomicLongArray(vertices);
+        for (int u = 0; u < vertices; u++) {
+            offsets.set(u + 1, offsets.get(u) + degrees.get(u));
+            cursors.set(u, offsets.get(u));
+        }
+
+        OffHeapIntArray neighbors = storage.allocateInts(offsets.get(vertices));
+        pool.submit(() -> IntStream.range(0, bounds.length - 1).parallel().forEach(chunk ->
+            parser.parse(map(channel, bounds[chunk], bounds[chunk + 1]), (u, v) -> {
+                if (u != v) {
+                    neighbors.set(cursors.getAndIncrement(u), v);
+                    neighbors.set(cursors.getAndIncrement(v), u);
+                }
+            }))).get();
+
+        return OffHeapGraph.fromAdjacency(vertices, offsets, neighbors, storage);
+    }
+
+    private static MappedByteBuffer map(FileChannel channel, long start, long end) {
+        try {
+            return channel.map(FileChannel.MapMode.READ_ONLY, start, end - start);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    // Receives the edges parsed from a chunk
+    interface EdgeConsumer {
+        void accept(int u, int v);
+    }
+
+    interface EdgeParser {
+
+        // Splits the file into roughly 'chunks' ranges that each contain whole records
+        long[] chunkBounds(FileChannel channel, int chunks) throws IOException;
+
+        // Parses the records in a chunk
+        void parse(MappedByteBuffer buffer, EdgeConsumer consumer);
+    }
+
+    // Splits [0, size) into ranges of at most MAX_CHUNK_BYTES, aligning each boundary with 'align'
+    private static long[] splitEvenly(long size, int chunks, Aligner align) throws IOException {
+        int count = (int) Math.max(Math.max(1, chunks), (size + MAX_CHUNK_BYTES - 1) / MAX_CHUNK_BYTES);
+        long[] bounds = new long[count + 1];
+        for (int i = 1; i < count; i++) {
+            bounds[i] = Math.max(bounds[i - 1], align.align(size * i / count));
+        }
+        bounds[count] = size;
+        return bounds;
+    }
+
+    interface Aligner {
+        long align(long position) throws IOException;
+    }
+
+    static class TextParser implements EdgeParser {
+
+        @Override
+        public long[] chunkBounds(FileChannel channel, int chunks) throws IOException {
+            long size = channel.size();
+            return splitEvenly(size, chunks, position -> nextLineStart(channel, position, size));
+        }
+
+        // Returns the start of the first line that begins at or after position
+        private static long nextLineStart(FileChannel channel, long position, long size) throws IOException {
+            if (position == 0) {
+                return 0;
+            }
+            long window = 4096;
+            long start = position - 1;
+            while (start < size) {
+                MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, start, Math.min(window, size - start));
+                for (int i = 0; i < buffer.limit(); i++) {
+                    if (buffer.get(i) == '\n') {
+                        return start + i + 1;
+                    }
+                }
+                start += buffer.limit();
+            }
+            return size;
+        }
+
+        @Override
+        public void parse(MappedByteBuffer buffer, EdgeConsumer consumer) {
+            int limit = buffer.limit();
+            int i = 0;
+            while (i < limit) {
+
+                // Skip blank space and comment lines
+                byte b = buffer.get(i);
+                if (b == '#' || b == '%') {
+                    while (i < limit && buffer.get(i) != '\n') {
+                        i++;
+                    }
+                    continue;
+                }
+                if (b == '\n' || b == '\r' || b == ' ' || b == '\t') {
+                    i++;
+                    continue;
+                }
+
+                // Parse the first two numbers of the line, and skip the rest of it
+                long u = -1;
+                long v = -1;
+                int field = 0;
+                while (i < limit && (b = buffer.get(i)) != '\n') {
+                    if (b >= '0' && b <= '9') {
+                        long value = 0;
+                        while (i < limit && (b = buffer.get(i)) >= '0' && b <= '9') {
+                            value = value * 10 + (b - '0');
+                            if (value > Integer.MAX_VALUE) {
+                                throw new IllegalArgumentException("Vertex id out of range in the edge list.");
+                            }
+                            i++;
+                        }
+                        if (field == 0) {
+                            u = value;
+                        } else if (field == 1) {
+                            v = value;
+                        }
+                        field++;
+                    } else if (b == ' ' || b == '\t' || b == '\r' || b == ',') {
+                        i++;
+                    } else if (field < 2) {
+                        throw new IllegalArgumentException("Unexpected character '" + (char) b + "' in the edge list.");
+                    } else {
+                        i++; // Ignore trailing columns such as weights or timestamps
+                    }
+                }
+
+                if (field >= 2) {
+                    consumer.accept((int) u, (int) v);
+                } else if (field == 1) {
+                    throw new IllegalArgumentException("Edge list line with a single vertex id " + u + ".");
+                }
+            }
+        }
+    }
+
+    static class BinaryParser implements EdgeParser {
+
+        private final ByteOrder order;
+
+        BinaryParser(ByteOrder order) {
+            this.order = order;
+        }
+
+        @Override
+        public long[] chunkBounds(FileChannel channel, int chunks) throws IOException {
+            long size = channel.size();
+            if (size % 8 != 0) {
+                throw new IllegalArgumentException("Binary edge list size " + size + " is not a multiple of 8 bytes.");
+            }
+            return splitEvenly(size, chunks, position -> position - position % 8);
+        }
+
+        @Override
+        public void parse(MappedByteBuffer buffer, EdgeConsumer consumer) {
+            buffer.order(order);
+            int limit = buffer.limit();
+            for (int i = 0; i + 8 <= limit; i += 8) {
+                int u = buffer.getInt(i);
+                int v = buffer.getInt(i + 4);
+                if (u < 0 || v < 0) {
+                    throw new IllegalArgumentException("Negative vertex id in the binary edge list.");
+                }
+                consumer.accept(u, v);
+            }
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,74 @@
+// (Delta + 1)-edge coloring that starts from a fast greedy coloring and repairs it.
+//
+// FastGreedy colors the graph with up to (2 + epsilon)Delta colors. Its colors in [1, Delta + 1] are kept, as a partial
+// (Delta + 1)-coloring, and only the edges with larger colors are recolored, each with a Vizing fan and alternating
+// path flip against the partial coloring. With first-fit selection few edges get colors above Delta + 1, so the
+// repair touches a small fraction of the edges, and the whole run is much faster than Vizing from scratch.
+public class GreedyRepair implements EdgeColoringAlgorithm {
+
+    private final FastGreedy greedy;
+
+    // Optional instrumentation, null when disabled
+    private ColoringMetrics metrics;
+
+    // Number of edges recolored during the last call to color
+    private int repairedEdges;
+
+    // Greedy pass with epsilon = 0.1 and first-fit selection
+    public GreedyRepair() {
+        this(new FastGreedy(0.1f));
+        greedy.setSelection(FastGreedy.Selection.FIRST_FIT);
+    }
+
+    // Uses the given greedy algorithm for the first pass
+    public GreedyRepair(FastGreedy greedy) {
+        this.greedy = greedy;
+    }
+
+    // Record the phases of the greedy pass and of the repair, and its fans and flips, in metrics (null to disable)
+    public void setMetrics(ColoringMetrics metrics) {
+        this.metrics = metrics;
+        greedy.setMetrics(metrics);
+    }
+
+    @Override
+    @SuppressWarnings("try")
+    public EdgeColoring color(Graph graph) {
+
+        EdgeColoring greedyColoring = greedy.color(graph);
+
+        int maxColor = graph.maxDegree() + 1;
+        EdgeColoring coloring;
+        try (ColoringMetrics.Phase phase = ColoringMetrics.phase(metrics, ColoringMetrics.REPAIR)) {
+
+            // Keep the greedy colors that fit in the palette, the rest of the edges are repaired
+            coloring = new EdgeColoring(graph, maxColor);
+            coloring.setMetrics(metrics);
+            int[] pending = new int[graph.m()];
+            int count = 0;
+            for (int edgeId = 0; edgeId < graph.m(); edgeId++) {
+                int color = greedyColoring.getEdgeColor(edgeId);
+                if (color > maxColor) {
+                    pending[count++] = edgeId;
+                } else if (!coloring.setEdgeColor(edgeId, color)) {
+                    throw new IllegalStateException("Greedy color of edge " + edgeId + " conflicts. This should not happen if the algorithm is correct.");
+                }
+            }
+
+            for (int k = 0; k < count; k++) {
+                int edgeId = pending[k];
+                if (!new VizingFan(graph.edgeU(edgeId), edgeId, coloring).activate()) {
+                    throw new IllegalStateException("Failed to color edge " + edgeId + ". This should not happen if the algorithm is correct.");
+                }
+            }
+            repairedEdges = count;
+        }
+
+        return coloring;
+    }
+
+    // Get the number of edges recolored by the repair during the last coloring
+    public int getRepairedEdges() {
+        return repairedEdges;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,103 @@
+import java.util.SplittableRandom;
+
+// (Delta + 1)-edge coloring with multi-step Vizing chains, in the style of Bernshteyn and Dhawan.
+//
+// Each uncolored edge is fixed with a chain of fans and alternating paths. When the path of a fan is longer than the
+// cap, it is truncated at a random edge number between half the cap and the cap: that edge is uncolored, the prefix
+// before it is flipped, the fan is completed, and the chain continues with a new fan at the uncolored path edge.
+// With random truncation points and random missing colors the chain reaches a short path after O(log n) steps with
+// high probability, so each edge costs poly(Delta) log n time, which bounds the latency of a single edge rather than
+// only the average. After the step cap, the chain finishes with an ordinary Vizing fan to guarantee termination.
+public class MultiStepVizing implements EdgeColoringAlgorithm {
+
+    private final long seed;
+
+    // Longest path flipped in one step, and most steps in a chain (0 to derive them from Delta and n)
+    private final int maxPathLength;
+    private final int maxSteps;
+
+    // Statistics of the last call to color
+    private long truncations;
+    private int longestChain;
+    private long fallbacks;
+
+    public MultiStepVizing(long seed) {
+        this(seed, 0, 0);
+    }
+
+    public MultiStepVizing(long seed, int maxPathLength, int maxSteps) {
+        if (maxPathLength < 0 || maxPathLength == 1 || maxSteps < 0) {
+            throw new IllegalArgumentException("Maximum path length must be 0 or at least 2, and maximum steps non-negative.");
+        }
+        this.seed = seed;
+        this.maxPathLength = maxPathLength;
+        this.maxSteps = maxSteps;
+    }
+
+    @Override
+    public EdgeColoring color(Graph graph) {
+
+        int maxColor = graph.maxDegree() + 1;
+        EdgeColoring coloring = new EdgeColoring(graph, maxColor);
+        SplittableRandom rand = new SplittableRandom(seed);
+
+        // By default a step flips O(Delta) edges and a chain has O(log n) steps
+        int pathCap = (maxPathLength > 0) ? maxPathLength : Math.max(8, 2 * maxColor);
+        int stepCap = (maxSteps > 0) ? maxSteps : 2 * (32 - Integer.numberOfLeadingZeros(graph.n()));
+
+        truncations = 0;
+        longestChain = 0;
+        fallbacks = 0;
+
+        for (int edgeId = 0; edgeId < graph.m(); edgeId++) {
+            if (coloring.getEdgeColor(edgeId) == 0) {
+                colorEdge(coloring, edgeId, pathCap, stepCap, rand);
+            }
+        }
+
+        return coloring;
+    }
+
+    // Colors an uncolored edge with a chain of at most stepCap truncated steps, and a full fan after that
+    private void colorEdge(EdgeColoring coloring, int edgeId, int pathCap, int stepCap, SplittableRandom rand) {
+
+        Graph graph = coloring.getGraph();
+
+        for (int step = 0; step < stepCap; step++) {
+
+            int center = rand.nextBoolean() ? graph.edgeU(edgeId) : graph.edgeV(edgeId);
+            VizingFan fan = new VizingFan(center, edgeId, coloring, null, rand);
+
+            int truncateAt = Math.max(2, pathCap / 2 + rand.nextInt(pathCap - pathCap / 2 + 1));
+            int next = fan.activateTruncated(truncateAt);
+            if (next == VertexColorTable.NONE) {
+                longestChain = Math.max(longestChain, step + 1);
+                return;
+            }
+
+            truncations++;
+            edgeId = next;
+        }
+
+        fallbacks++;
+        longestChain = Math.max(longestChain, stepCap + 1);
+        if (!new VizingFan(graph.edgeU(edgeId), edgeId, coloring).activate()) {
+            throw new IllegalStateException("Failed to color edge " + edgeId + ". This should not happen if the algorithm is correct.");
+        }
+    }
+
+    // Number of paths truncated during the last coloring
+    public long getTruncations() {
+        return truncations;
+    }
+
+    // Most steps taken by a single chain during the last coloring
+    public int getLongestChain() {
+        return longestChain;
+    }
+
+    // Number of chains that reached the step cap and were finished with a full fan
+    public long getFallbacks() {
+        return fallbacks;
+    }
+}
\ No newline at end of file
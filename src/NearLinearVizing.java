@@ -0,0 +1,217 @@
+import java.util.Arrays;
+import java.util.SplittableRandom;
+
+// (Delta + 1)-edge coloring with u-components and separable collections, following the near-linear time approach to
+// Vizing's theorem.
+//
+// A greedy pass first colors every edge that has a common missing color at its endpoints. The remaining edges are
+// colored in rounds. In a round, each uncolored edge (u, v) reserves a random missing color alpha at u and beta at v,
+// distinct from the colors reserved by the other edges at the same vertices, which makes the u-edges a separable
+// collection. The u-edges are then extended grouped by their pair of colors: flipping the (alpha, beta)-path from v
+// frees alpha at v, so (u, v) gets color alpha. A flip only changes the missing colors of the endpoints of the path,
+// so it damages at most two other u-edges, which reserve other missing colors (or are destroyed and retried in the
+// next round if repairing is disabled). Since the colors are random, the alternating paths are short on average, and
+// each round colors a constant fraction of the edges. The few edges left once the rounds stop making progress are
+// colored with Vizing fans.
+public class NearLinearVizing implements EdgeColoringAlgorithm {
+
+    // Rounds stop once a round colors less than this fraction of the uncolored edges
+    private static final double MIN_PROGRESS = 0.05;
+
+    // Random picks of a missing color before scanning the palette for one that is not reserved
+    private static final int RANDOM_PICKS = 4;
+
+    private final long seed;
+
+    // Whether damaged u-edges are repaired rather than destroyed
+    private boolean repairDamaged = true;
+
+    // Damaged u-edges destroyed and repaired during the last call to color
+    private long destroyedComponents;
+    private long repairedComponents;
+
+    public NearLinearVizing() {
+        this(0);
+    }
+
+    // The seed of the random choices, the coloring is the same for a given seed
+    public NearLinearVizing(long seed) {
+        this.seed = seed;
+    }
+
+    @Override
+    public EdgeColoring color(Graph graph) {
+
+        int maxColor = graph.maxDegree() + 1;
+        EdgeColoring coloring = new EdgeColoring(graph, maxColor);
+        SplittableRandom rand = new SplittableRandom(seed);
+        destroyedComponents = 0;
+        repairedComponents = 0;
+
+        // Greedily color the edges that have a common missing color at their endpoints
+        int[] pending = new int[graph.m()];
+        int count = 0;
+        for (int edgeId = 0; edgeId < graph.m(); edgeId++) {
+            int u = graph.edgeU(edgeId);
+            int v = graph.edgeV(edgeId);
+            int colorU = coloring.getSmallestMissingColor(u);
+            int colorV = coloring.getSmallestMissingColor(v);
+            if (coloring.isMissing(v, colorU)) {
+                coloring.setEdgeColor(edgeId, colorU);
+            } else if (coloring.isMissing(u, colorV)) {
+                coloring.setEdgeColor(edgeId, colorV);
+            } else {
+                pending[count++] = edgeId;
+            }
+        }
+        pending = Arrays.copyOf(pending, count);
+
+        while (pending.length > 0) {
+            int[] deferred = colorRound(coloring, pending, rand);
+            boolean progress = deferred.length < (1 - MIN_PROGRESS) * pending.length;
+            pending = deferred;
+            if (!progress) {
+                break;
+            }
+        }
+
+        for (int edgeId : pending) {
+            if (coloring.getEdgeColor(edgeId) == 0) {
+                new VizingFan(graph.edgeU(edgeId), edgeId, coloring).activate();
+            }
+        }
+
+        return coloring;
+    }
+
+    // Builds a separable collection of u-edges from the uncolored edges and extends it, returns the edges left uncolored
+    private int[] colorRound(EdgeColoring coloring, int[] pending, SplittableRandom rand) {
+
+        Graph graph = coloring.getGraph();
+        GraphGenerator.shuffle(pending, rand);
+
+        SeparableCollection collection = new SeparableCollection(coloring, pending.length);
+        collection.setRepairDamaged(repairDamaged);
+        UEdge[] uEdges = new UEdge[pending.length];
+        int size = 0;
+        int[] deferred = new int[pending.length];
+        int deferredCount = 0;
+
+        for (int edgeId : pending) {
+            int u = graph.edgeU(edgeId);
+            int v = graph.edgeV(edgeId);
+            int alpha = pickMissingColor(coloring, collection, u, rand);
+            int beta = pickMissingColor(coloring, collection, v, rand);
+
+            // A vertex misses more colors than it has uncolored edges, so this only happens if the coloring is invalid
+            if (alpha == 0 || beta == 0) {
+                throw new IllegalStateException("No free missing color at edge (" + u + ", " + v + "). This should not happen if the algorithm is correct.");
+            }
+
+            if (coloring.isMissing(v, alpha)) {
+                coloring.setEdgeColor(edgeId, alpha, collection);
+            } else if (coloring.isMissing(u, beta)) {
+                coloring.setEdgeColor(edgeId, beta, collection);
+            } else {
+                UEdge uEdge = new UEdge(edgeId, u, v, alpha, beta);
+                collection.addUComponent(uEdge);
+                uEdges[size++] = uEdge;
+            }
+        }
+
+        // Group the u-edges by their pair of colors, keeping the random order within a group
+        long[] pairs = new long[size];
+        for (int i = 0; i < size; i++) {
+            int alpha = uEdges[i].colorAtU();
+            int beta = uEdges[i].colorAtV();
+            pairs[i] = (long) Math.min(alpha, beta) * (coloring.maxColor() + 1) + Math.max(alpha, beta);
+        }
+
+        // The pair is packed above the index in a single sort key, so when the pairs do not fit in 31 bits they are
+        // replaced by their rank among the distinct pairs, which is smaller than the number of u-edges
+        if ((long) (coloring.maxColor() + 1) * (coloring.maxColor() + 1) > Integer.MAX_VALUE) {
+            long[] distinct = Arrays.copyOf(pairs, size);
+            Arrays.sort(distinct);
+            int count = 0;
+            for (int i = 0; i < size; i++) {
+                if (count == 0 || distinct[i] != distinct[count - 1]) {
+                    distinct[count++] = distinct[i];
+                }
+            }
+            for (int i = 0; i < size; i++) {
+                pairs[i] = Arrays.binarySearch(distinct, 0, count, pairs[i]);
+            }
+        }
+        long[] order = new long[size];
+        for (int i = 0; i < size; i++) {
+            order[i] = (pairs[i] << 32) | i;
+        }
+        Arrays.sort(order);
+
+        for (long key : order) {
+            UEdge uEdge = uEdges[(int) key];
+            int edgeId = uEdge.edgeId(coloring);
+
+            // Destroyed by the extension of another u-edge, or colored after its colors were freed
+            if (!collection.contains(uEdge)) {
+                if (coloring.getEdgeColor(edgeId) == 0) {
+                    deferred[deferredCount++] = edgeId;
+                }
+                continue;
+            }
+
+            if (uEdge.extend(coloring, collection)) {
+                continue;
+            }
+            if (uEdge.socialize(coloring, collection, uEdge.colorAtU(), uEdge.colorAtV()) && uEdge.extend(coloring, collection)) {
+                continue;
+            }
+            collection.removeUComponent(uEdge);
+            deferred[deferredCount++] = edgeId;
+        }
+
+        destroyedComponents += collection.getDestroyedCount();
+        repairedComponents += collection.getRepairedCount();
+
+        return Arrays.copyOf(deferred, deferredCount);
+    }
+
+    // Enable or disable the repair of damaged u-edges (they are destroyed and retried in the next round when disabled)
+    public void setRepairDamaged(boolean repairDamaged) {
+        this.repairDamaged = repairDamaged;
+    }
+
+    // Number of damaged u-edges destroyed during the last coloring
+    public long getDestroyedComponents() {
+        return destroyedComponents;
+    }
+
+    // Number of damaged u-edges repaired during the last coloring
+    public long getRepairedComponents() {
+        return repairedComponents;
+    }
+
+    // Picks a random missing color at a vertex that is not reserved in the collection, or 0 if there is none
+    private static int pickMissingColor(EdgeColoring coloring, SeparableCollection collection, int vertex, SplittableRandom rand) {
+
+        Palette palette = coloring.getMissingColors();
+        int size = palette.size(vertex);
+        if (size == 0) {
+            return 0;
+        }
+
+        for (int k = 0; k < RANDOM_PICKS; k++) {
+            int color = palette.get(vertex, rand.nextInt(size));
+            if (!collection.isReserved(vertex, color)) {
+                return color;
+            }
+        }
+        for (int i = 0; i < size; i++) {
+            int color = palette.get(vertex, i);
+            if (!collection.isReserved(vertex, color)) {
+                return color;
+            }
+        }
+        return 0;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,192 @@
+import java.util.Arrays;
+import java.util.stream.IntStream;
+
+// Graph whose adjacency is stored off-heap, see OffHeapStorage.
+//
+// Same layout and edge ids as Graph, but slots are indexed with longs, so the adjacency may hold more than 2^31 slots
+// (up to 2^31 - 1 edges, since edge ids are ints). Use it through the Graph accessors like any other graph.
+public class OffHeapGraph extends Graph {
+
+    // Compressed sparse row adjacency, with sorted rows
+    private final OffHeapLongArray offsets;
+    private final OffHeapIntArray neighbors;
+
+    // Edge id of each adjacency slot
+    private final OffHeapIntArray slotEdgeIds;
+
+    // Endpoints of each edge id, with edgeU < edgeV
+    private final OffHeapIntArray edgeU;
+    private final OffHeapIntArray edgeV;
+
+    private OffHeapGraph(int n, int m, int maxDegree, OffHeapLongArray offsets, OffHeapIntArray neighbors,
+                         OffHeapIntArray slotEdgeIds, OffHeapIntArray edgeU, OffHeapIntArray edgeV) {
+        super(n, m, maxDegree);
+        this.offsets = offsets;
+        this.neighbors = neighbors;
+        this.slotEdgeIds = slotEdgeIds;
+        this.edgeU = edgeU;
+        this.edgeV = edgeV;
+    }
+
+    // Copies a graph off-heap, with the same edge ids
+    public static OffHeapGraph copyOf(Graph graph, OffHeapStorage storage) {
+
+        int n = graph.n();
+        int m = graph.m();
+        OffHeapLongArray offsets = storage.allocateLongs(n + 1);
+        for (int u = 0; u < n; u++) {
+            offsets.set(u + 1, offsets.get(u) + graph.degree(u));
+        }
+
+        OffHeapIntArray neighbors = storage.allocateInts(2L * m);
+        OffHeapIntArray slotEdgeIds = storage.allocateInts(2L * m);
+        IntStream.range(0, n).parallel().forEach(u -> {
+            long start = offsets.get(u);
+            for (int i = 0; i < graph.degree(u); i++) {
+                neighbors.set(start + i, graph.neighbor(u, i));
+                slotEdgeIds.set(start + i, graph.edgeId(u, i));
+            }
+        });
+
+        OffHeapIntArray edgeU = storage.allocateInts(m);
+        OffHeapIntArray edgeV = storage.allocateInts(m);
+        IntStream.range(0, m).parallel().forEach(edgeId -> {
+            edgeU.set(edgeId, graph.edgeU(edgeId));
+            edgeV.set(edgeId, graph.edgeV(edgeId));
+        });
+
+        return new OffHeapGraph(n, m, graph.maxDegree(), offsets, neighbors, slotEdgeIds, edgeU, edgeV);
+    }
+
+    // Builds a graph from a symmetric adjacency in CSR form (rows may be unsorted and contain duplicates or
+    // self-loops), which is sorted and compacted in place
+    static OffHeapGraph fromAdjacency(int n, OffHeapLongArray offsets, OffHeapIntArray neighbors, OffHeapStorage storage) {
+
+        // Sort the rows in parallel, each through a reusable heap buffer
+        ThreadLocal<int[]> buffers = ThreadLocal.withInitial(() -> new int[16]);
+        IntStream.range(0, n).parallel().forEach(u -> {
+            long start = offsets.get(u);
+            long length = offsets.get(u + 1) - start;
+            if (length > Integer.MAX_VALUE - 8) {
+                throw new IllegalArgumentException("Vertex " + u + " has too many adjacency slots.");
+            }
+            int[] row = buffers.get();
+            if (row.length < length) {
+                row = new int[(int) length];
+                buffers.set(row);
+            }
+            for (int i = 0; i < length; i++) {
+                row[i] = neighbors.get(start + i);
+            }
+            Arrays.sort(row, 0, (int) length);
+            for (int i = 0; i < length; i++) {
+                neighbors.set(start + i, row[i]);
+            }
+        });
+
+        // Remove self-loops and duplicates
+        long write = 0;
+        int maxDegree = 0;
+        for (int u = 0; u < n; u++) {
+            long start = offsets.get(u);
+            long end = offsets.get(u + 1);
+            offsets.set(u, write);
+            int previous = -1;
+            for (long i = start; i < end; i++) {
+                int v = neighbors.get(i);
+                if (v != u && v != previous) {
+                    neighbors.set(write++, v);
+                }
+                previous = v;
+            }
+            maxDegree = (int) Math.max(maxDegree, write - offsets.get(u));
+        }
+        offsets.set(n, write);
+
+        if (write / 2 > Integer.MAX_VALUE - 8) {
+            throw new IllegalArgumentException("Graph has too many edges for int edge ids.");
+        }
+        int m = (int) (write / 2);
+
+        // Assign edge ids in order of the smaller endpoint, as Graph does
+        OffHeapIntArray slotEdgeIds = storage.allocateInts(write);
+        OffHeapIntArray edgeU = storage.allocateInts(m);
+        OffHeapIntArray edgeV = storage.allocateInts(m);
+        long[] next = new long[n];
+        int id = 0;
+        for (int u = 0; u < n; u++) {
+            long end = offsets.get(u + 1);
+            long i = offsets.get(u);
+            for (; i < end && neighbors.get(i) < u; i++) {
+                int v = neighbors.get(i);
+                slotEdgeIds.set(i, slotEdgeIds.get(next[v]++));
+            }
+            next[u] = i;
+            for (; i < end; i++) {
+                edgeU.set(id, u);
+                edgeV.set(id, neighbors.get(i));
+                slotEdgeIds.set(i, id++);
+            }
+        }
+
+        return new OffHeapGraph(n, m, maxDegree, offsets, neighbors, slotEdgeIds, edgeU, edgeV);
+    }
+
+    @Override
+    public int degree(int u) {
+        return (int) (offsets.get(u + 1) - offsets.get(u));
+    }
+
+    @Override
+    public int neighbor(int u, int i) {
+        return neighbors.get(offsets.get(u) + i);
+    }
+
+    @Override
+    public int edgeId(int u, int i) {
+        return slotEdgeIds.get(offsets.get(u) + i);
+    }
+
+    @Override
+    public int edgeU(int edgeId) {
+        return edgeU.get(edgeId);
+    }
+
+    @Override
+    public int edgeV(int edgeId) {
+        return edgeV.get(edgeId);
+    }
+
+    @Override
+    public int other(int edgeId, int vertex) {
+        return edgeU.get(edgeId) ^ edgeV.get(edgeId) ^ vertex;
+    }
+
+    @Override
+    public int findEdge(int u, int v) {
+        if (u < 0 || u >= n() || v < 0 || v >= n()) {
+            return -1;
+        }
+
+        // Binary search in the shorter of the two sorted rows
+        if (degree(u) > degree(v)) {
+            int t = u;
+            u = v;
+            v = t;
+        }
+        long low = offsets.get(u);
+        long high = offsets.get(u + 1) - 1;
+        while (low <= high) {
+            long mid = (low + high) >>> 1;
+            int w = neighbors.get(mid);
+            if (w < v) {
+                low = mid + 1;
+            } else if (w > v) {
+                high = mid - 1;
+            } else {
+                return slotEdgeIds.get(mid);
+            }
+        }
+        return -1;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,167 @@
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+import java.nio.LongBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+// Allocates long-indexed primitive arrays outside the Java heap, for graphs and colorings that exceed the 2^31 entry
+// limit of Java arrays or would put too much pressure on the garbage collector.
+//
+// An array is a list of segments of at most 2^30 bytes, each a direct ByteBuffer, or a memory-mapped region of a file
+// when the storage is backed by a directory. Mapped arrays are paged in and out by the operating system, so they can
+// be larger than the available memory. Arrays start zeroed. Closing the storage deletes its files. Direct memory is
+// released when the arrays are garbage collected, and is limited by -XX:MaxDirectMemorySize.
+public class OffHeapStorage implements AutoCloseable {
+
+    // Number of bytes in a full segment, as a power of two so that an index splits into segment and offset with shifts
+    static final int SEGMENT_SHIFT = 30;
+
+    // Directory of the backing files, null for anonymous direct memory
+    private final Path directory;
+    private final List<Path> files = new ArrayList<>();
+
+    private OffHeapStorage(Path directory) {
+        this.directory = directory;
+    }
+
+    // Storage in direct memory
+    public static OffHeapStorage direct() {
+        return new OffHeapStorage(null);
+    }
+
+    // Storage in memory-mapped files created in the directory
+    public static OffHeapStorage mapped(Path directory) throws IOException {
+        Files.createDirectories(directory);
+        return new OffHeapStorage(directory);
+    }
+
+    OffHeapIntArray allocateInts(long length) {
+        return new OffHeapIntArray(allocate(length, 2), length);
+    }
+
+    OffHeapLongArray allocateLongs(long length) {
+        return new OffHeapLongArray(allocate(length, 3), length);
+    }
+
+    // Allocates the segments of an array of 'length' entries of 2^shift bytes each
+    private synchronized ByteBuffer[] allocate(long length, int shift) {
+
+        if (length < 0) {
+            throw new IllegalArgumentException("Array length must be non-negative.");
+        }
+
+        long bytes = length << shift;
+        int count = (int) Math.max(1, (bytes + (1L << SEGMENT_SHIFT) - 1) >>> SEGMENT_SHIFT);
+        ByteBuffer[] segments = new ByteBuffer[count];
+
+        try {
+            FileChannel channel = null;
+            if (directory != null) {
+                Path file = Files.createTempFile(directory, "offheap", ".bin");
+                files.add(file);
+                channel = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE);
+            }
+            for (int s = 0; s < count; s++) {
+                long start = (long) s << SEGMENT_SHIFT;
+                int size = (int) Math.min(1L << SEGMENT_SHIFT, bytes - start);
+                segments[s] = (channel == null) ? ByteBuffer.allocateDirect(size) : channel.map(FileChannel.MapMode.READ_WRITE, start, size);
+                segments[s].order(ByteOrder.nativeOrder());
+            }
+            if (channel != null) {
+                channel.close(); // Mappings stay valid after the channel is closed
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+
+        return segments;
+    }
+
+    // Deletes the backing files. The arrays must not be used afterwards.
+    @Override
+    public synchronized void close() throws IOException {
+        for (Path file : files) {
+            Files.deleteIfExists(file);
+        }
+        files.clear();
+    }
+}
+
+// Off-heap int array with long indices
+class OffHeapIntArray {
+
+    private static final int SHIFT = OffHeapStorage.SEGMENT_SHIFT - 2;
+    private static final long MASK = (1L << SHIFT) - 1;
+
+    private final IntBuffer[] segments;
+    private final long length;
+
+    OffHeapIntArray(ByteBuffer[] buffers, long length) {
+        this.segments = new IntBuffer[buffers.length];
+        for (int s = 0; s < buffers.length; s++) {
+            segments[s] = buffers[s].asIntBuffer();
+        }
+        this.length = length;
+    }
+
+    public long length() {
+        return length;
+    }
+
+    public int get(long i) {
+        return segments[(int) (i >>> SHIFT)].get((int) (i & MASK));
+    }
+
+    public void set(long i, int value) {
+        segments[(int) (i >>> SHIFT)].put((int) (i & MASK), value);
+    }
+
+    public void fill(long from, long to, int value) {
+        for (long i = from; i < to; i++) {
+            set(i, value);
+        }
+    }
+}
+
+// Off-heap long array with long indices
+class OffHeapLongArray {
+
+    private static final int SHIFT = OffHeapStorage.SEGMENT_SHIFT - 3;
+    private static final long MASK = (1L << SHIFT) - 1;
+
+    private final LongBuffer[] segments;
+    private final long length;
+
+    OffHeapLongArray(ByteBuffer[] buffers, long length) {
+        this.segments = new LongBuffer[buffers.length];
+        for (int s = 0; s < buffers.length; s++) {
+            segments[s] = buffers[s].asLongBuffer();
+        }
+        this.length = length;
+    }
+
+    public long length() {
+        return length;
+    }
+
+    public long get(long i) {
+        return segments[(int) (i >>> SHIFT)].get((int) (i & MASK));
+    }
+
+    public void set(long i, long value) {
+        segments[(int) (i >>> SHIFT)].put((int) (i & MASK), value);
+    }
+
+    public void fill(long from, long to, long value) {
+        for (long i = from; i < to; i++) {
+            set(i, value);
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,281 @@
+import java.util.Arrays;
+
+// Sets of missing colors for all vertices, stored in flat primitive arrays.
+// Vertex v tracks the colors [1, capacity(v)]. Its missing colors form the prefix of a swap-indexed list, so that
+// add, remove, contains and "any missing color" take O(1) time, and a bitset over the same colors answers
+// "smallest missing color" with a word scan.
+public class Palette {
+
+    // Number of vertices
+    private final int n;
+
+    // The slots of vertex v are start[v], ..., start[v + 1] - 1, one for each tracked color
+    private final int[] start;
+
+    // List of tracked colors of each vertex, the first size[v] of which are missing
+    private final int[] colors;
+
+    // Index of each tracked color in the list of its vertex, stored in slot start[v] + color - 1
+    private final int[] position;
+
+    // Number of missing colors of each vertex
+    private final int[] size;
+
+    // Bitset of missing colors of each vertex, with bit (color - 1) in the words wordStart[v], ..., wordStart[v + 1] - 1
+    private final int[] wordStart;
+    private final long[] words;
+
+    // Creates a palette where vertex v tracks the colors [1, capacities[v]], all of them initially missing
+    public Palette(int[] capacities) {
+        this.n = capacities.length;
+        this.start = new int[n + 1];
+        this.wordStart = new int[n + 1];
+        for (int v = 0; v < n; v++) {
+            start[v + 1] = start[v] + capacities[v];
+            wordStart[v + 1] = wordStart[v] + ((capacities[v] + 63) >>> 6);
+        }
+
+        this.colors = new int[start[n]];
+        this.position = new int[start[n]];
+        this.size = new int[n];
+        this.words = new long[wordStart[n]];
+
+        for (int v = 0; v < n; v++) {
+            int capacity = start[v + 1] - start[v];
+            for (int i = 0; i < capacity; i++) {
+                colors[start[v] + i] = i + 1;
+                position[start[v] + i] = i;
+            }
+            size[v] = capacity;
+
+            Arrays.fill(words, wordStart[v], wordStart[v + 1], -1L);
+            if ((capacity & 63) != 0) {
+                words[wordStart[v + 1] - 1] = (1L << (capacity & 63)) - 1;
+            }
+        }
+    }
+
+    // For subclasses that store the palette themselves and override the accessors
+    Palette(int n) {
+        this.n = n;
+        this.start = null;
+        this.colors = null;
+        this.position = null;
+        this.size = null;
+        this.wordStart = null;
+        this.words = null;
+    }
+
+    // Number of vertices in the palette
+    public int n() {
+        return n;
+    }
+
+    // Largest color tracked at vertex v
+    public int capacity(int v) {
+        return start[v + 1] - start[v];
+    }
+
+    // Number of missing colors at vertex v
+    public int size(int v) {
+        return size[v];
+    }
+
+    // The ith missing color of vertex v, for 0 <= i < size(v), in no particular order
+    public int get(int v, int i) {
+        return colors[start[v] + i];
+    }
+
+    // Checks if color is missing at vertex v, colors outside [1, capacity(v)] are never missing
+    public boolean contains(int v, int color) {
+        if (color < 1 || color > capacity(v)) {
+            return false;
+        }
+        return position[start[v] + color - 1] < size[v];
+    }
+
+    // Marks color as missing at vertex v, returns false if it was already missing or is not tracked
+    public boolean add(int v, int color) {
+        if (color < 1 || color > capacity(v)) {
+            return false;
+        }
+        int base = start[v];
+        int index = position[base + color - 1];
+        if (index < size[v]) {
+            return false;
+        }
+        swap(base, index, size[v]);
+        size[v]++;
+        words[wordStart[v] + ((color - 1) >>> 6)] |= 1L << (color - 1);
+        return true;
+    }
+
+    // Marks color as used at vertex v, returns false if it was not missing
+    public boolean remove(int v, int color) {
+        if (color < 1 || color > capacity(v)) {
+            return false;
+        }
+        int base = start[v];
+        int index = position[base + color - 1];
+        if (index >= size[v]) {
+            return false;
+        }
+        size[v]--;
+        swap(base, index, size[v]);
+        words[wordStart[v] + ((color - 1) >>> 6)] &= ~(1L << (color - 1));
+        return true;
+    }
+
+    // Swaps the colors at indices i and j in the list of the vertex whose slots start at base
+    private void swap(int base, int i, int j) {
+        int a = colors[base + i];
+        int b = colors[base + j];
+        colors[base + i] = b;
+        colors[base + j] = a;
+        position[base + b - 1] = i;
+        position[base + a - 1] = j;
+    }
+
+    // Returns an arbitrary missing color of vertex v, or 0 if there is none
+    public int any(int v) {
+        return (size[v] > 0) ? colors[start[v]] : 0;
+    }
+
+    // Returns the smallest missing color of vertex v, or 0 if there is none
+    public int smallest(int v) {
+        for (int w = wordStart[v]; w < wordStart[v + 1]; w++) {
+            if (words[w] != 0) {
+                return ((w - wordStart[v]) << 6) + Long.numberOfTrailingZeros(words[w]) + 1;
+            }
+        }
+        return 0;
+    }
+}
+
+// Palette stored off-heap, see OffHeapStorage. Same layout as Palette, with long slot indices, so that the total
+// capacity of the vertices may exceed 2^31.
+class OffHeapPalette extends Palette {
+
+    private final OffHeapLongArray start;
+    private final OffHeapIntArray colors;
+    private final OffHeapIntArray position;
+    private final OffHeapIntArray size;
+    private final OffHeapLongArray wordStart;
+    private final OffHeapLongArray words;
+
+    OffHeapPalette(int[] capacities, OffHeapStorage storage) {
+        super(capacities.length);
+        int n = capacities.length;
+        this.start = storage.allocateLongs(n + 1);
+        this.wordStart = storage.allocateLongs(n + 1);
+        for (int v = 0; v < n; v++) {
+            start.set(v + 1, start.get(v) + capacities[v]);
+            wordStart.set(v + 1, wordStart.get(v) + ((capacities[v] + 63) >>> 6));
+        }
+
+        this.colors = storage.allocateInts(start.get(n));
+        this.position = storage.allocateInts(start.get(n));
+        this.size = storage.allocateInts(n);
+        this.words = storage.allocateLongs(wordStart.get(n));
+
+        for (int v = 0; v < n; v++) {
+            long base = start.get(v);
+            int capacity = capacities[v];
+            for (int i = 0; i < capacity; i++) {
+                colors.set(base + i, i + 1);
+                position.set(base + i, i);
+            }
+            size.set(v, capacity);
+
+            words.fill(wordStart.get(v), wordStart.get(v + 1), -1L);
+            if ((capacity & 63) != 0) {
+                words.set(wordStart.get(v + 1) - 1, (1L << (capacity & 63)) - 1);
+            }
+        }
+    }
+
+    @Override
+    public int capacity(int v) {
+        return (int) (start.get(v + 1) - start.get(v));
+    }
+
+    @Override
+    public int size(int v) {
+        return size.get(v);
+    }
+
+    @Override
+    public int get(int v, int i) {
+        return colors.get(start.get(v) + i);
+    }
+
+    @Override
+    public boolean contains(int v, int color) {
+        if (color < 1 || color > capacity(v)) {
+            return false;
+        }
+        return position.get(start.get(v) + color - 1) < size.get(v);
+    }
+
+    @Override
+    public boolean add(int v, int color) {
+        if (color < 1 || color > capacity(v)) {
+            return false;
+        }
+        long base = start.get(v);
+        int index = position.get(base + color - 1);
+        int missing = size.get(v);
+        if (index < missing) {
+            return false;
+        }
+        swap(base, index, missing);
+        size.set(v, missing + 1);
+        long w = wordStart.get(v) + ((color - 1) >>> 6);
+        words.set(w, words.get(w) | (1L << (color - 1)));
+        return true;
+    }
+
+    @Override
+    public boolean remove(int v, int color) {
+        if (color < 1 || color > capacity(v)) {
+            return false;
+        }
+        long base = start.get(v);
+        int index = position.get(base + color - 1);
+        int missing = size.get(v);
+        if (index >= missing) {
+            return false;
+        }
+        size.set(v, missing - 1);
+        swap(base, index, missing - 1);
+        long w = wordStart.get(v) + ((color - 1) >>> 6);
+        words.set(w, words.get(w) & ~(1L << (color - 1)));
+        return true;
+    }
+
+    private void swap(long base, int i, int j) {
+        int a = colors.get(base + i);
+        int b = colors.get(base + j);
+        colors.set(base + i, b);
+        colors.set(base + j, a);
+        position.set(base + b - 1, i);
+        position.set(base + a - 1, j);
+    }
+
+    @Override
+    public int any(int v) {
+        return (size.get(v) > 0) ? colors.get(start.get(v)) : 0;
+    }
+
+    @Override
+    public int smallest(int v) {
+        long first = wordStart.get(v);
+        for (long w = first; w < wordStart.get(v + 1); w++) {
+            long word = words.get(w);
+            if (word != 0) {
+                return (int) ((w - first) << 6) + Long.numberOfTrailingZeros(word) + 1;
+            }
+        }
+        return 0;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,175 @@
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.stream.IntStream;
+
+// Vizing's algorithm with concurrent fan and path augmentations on vertex-disjoint parts of the graph.
+//
+// The uncolored edges are split among fork/join workers. Before a worker reads the colors at a vertex it claims the
+// vertex with a CAS on its owner slot, first the center and leaves of its fan, then the vertices of the alternating
+// path. Only owned vertices and edges between them are modified, so concurrent augmentations never interfere. If a
+// claim fails the worker releases its vertices, spins briefly and retries, and after a few attempts defers the edge
+// to the next round. Rounds that make little progress, and the last few edges, are finished sequentially.
+public class ParallelVizing implements EdgeColoringAlgorithm {
+
+    // Attempts at an edge within a round before it is deferred
+    private static final int MAX_ATTEMPTS = 4;
+
+    // Number of edges given to a task at a time
+    private static final int CHUNK_SIZE = 1024;
+
+    // Below this many uncolored edges, or this fraction of progress in a round, the rest is colored sequentially
+    private static final int SEQUENTIAL_THRESHOLD = 1024;
+    private static final double MIN_PROGRESS = 0.05;
+
+    private final int parallelism;
+
+    public ParallelVizing(int parallelism) {
+        if (parallelism < 1) {
+            throw new IllegalArgumentException("Parallelism must be at least 1.");
+        }
+        this.parallelism = parallelism;
+    }
+
+    @Override
+    public EdgeColoring color(Graph graph) {
+
+        int maxColor = graph.maxDegree() + 1;
+        EdgeColoring coloring = new EdgeColoring(graph, maxColor);
+
+        int[] pending = IntStream.range(0, graph.m()).toArray();
+
+        // Concurrent updates need the dense vertex/color table, and the in-place flip (the validating flip shares a buffer)
+        if (parallelism > 1 && coloring.supportsConcurrentVertexUpdates()) {
+            coloring.setValidateFlips(false);
+            pending = colorInRounds(graph, coloring, pending);
+        }
+
+        for (int edgeId : pending) {
+            if (coloring.getEdgeColor(edgeId) == 0) {
+                new VizingFan(graph.edgeU(edgeId), edgeId, coloring).activate();
+            }
+        }
+
+        return coloring;
+    }
+
+    // Colors the edges in parallel rounds, returns the edges left uncolored
+    private int[] colorInRounds(Graph graph, EdgeColoring coloring, int[] pending) {
+
+        AtomicIntegerArray owner = new AtomicIntegerArray(graph.n());
+        AtomicInteger tokens = new AtomicInteger();
+        ForkJoinPool pool = new ForkJoinPool(parallelism);
+
+        try {
+            while (pending.length > SEQUENTIAL_THRESHOLD) {
+
+                final int[] edges = pending;
+                int chunks = (edges.length + CHUNK_SIZE - 1) / CHUNK_SIZE;
+
+                int[] deferred = pool.submit(() -> IntStream.range(0, chunks).parallel().mapToObj(chunk -> {
+                    Claims claims = new Claims(owner, tokens.incrementAndGet());
+                    int[] failed = new int[16];
+                    int failures = 0;
+                    int end = Math.min(edges.length, (chunk + 1) * CHUNK_SIZE);
+                    for (int k = chunk * CHUNK_SIZE; k < end; k++) {
+                        int edgeId = augment(graph, coloring, claims, edges[k]);
+                        if (edgeId >= 0) {
+                            if (failures == failed.length) {
+                                failed = Arrays.copyOf(failed, 2 * failures);
+                            }
+                            failed[failures++] = edgeId;
+                        }
+                    }
+                    return Arrays.copyOf(failed, failures);
+                }).flatMapToInt(IntStream::of).toArray()).join();
+
+                boolean progress = deferred.length < (1 - MIN_PROGRESS) * edges.length;
+                pending = deferred;
+                if (!progress) {
+                    break;
+                }
+            }
+        } finally {
+            pool.shutdown();
+        }
+
+        return pending;
+    }
+
+    // Colors an edge with a fan centered at its smaller endpoint, returns -1 on success or the edge left uncolored
+    private static int augment(Graph graph, EdgeColoring coloring, Claims claims, int edgeId) {
+
+        for (int attempt = 0; attempt < MAX_ATTEMPTS; attempt++) {
+
+            int center = graph.edgeU(edgeId);
+            if (!claims.claim(center)) {
+                backoff(attempt);
+                continue;
+            }
+
+            // The color of an edge only changes while both its endpoints are owned
+            if (coloring.getEdgeColor(edgeId) != 0) {
+                claims.releaseAll();
+                return -1;
+            }
+
+            VizingFan fan = new VizingFan(center, edgeId, coloring, claims);
+            boolean colored = !fan.isAborted() && fan.activate();
+            edgeId = fan.getUncoloredEdge(); // A fan aborted after rotating leaves another of its edges uncolored
+            claims.releaseAll();
+
+            if (colored) {
+                return -1;
+            }
+            backoff(attempt);
+        }
+
+        return edgeId;
+    }
+
+    private static void backoff(int attempt) {
+        for (int i = 0; i < (16 << attempt); i++) {
+            Thread.onSpinWait();
+        }
+    }
+
+    // The vertices owned by one worker, identified by a token
+    static class Claims implements VertexClaim {
+
+        private final AtomicIntegerArray owner;
+        private final int token;
+        private int[] held = new int[16];
+        private int size;
+
+        Claims(AtomicIntegerArray owner, int token) {
+            this.owner = owner;
+            this.token = token;
+        }
+
+        @Override
+        public boolean claim(int vertex) {
+            int current = owner.get(vertex);
+            if (current == token) {
+                return true;
+            }
+            if (current != 0 || !owner.compareAndSet(vertex, 0, token)) {
+                return false;
+            }
+            if (size == held.length) {
+                held = Arrays.copyOf(held, 2 * size);
+            }
+            held[size++] = vertex;
+            return true;
+        }
+
+        // Releasing with a volatile write publishes every change made while the vertices were owned
+        public void releaseAll() {
+            for (int i = 0; i < size; i++) {
+                owner.set(held[i], 0);
+            }
+            size = 0;
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,82 @@
+import java.util.Arrays;
+import java.util.SplittableRandom;
+
+// Randomized (Delta + 1)-edge coloring in the style of Sinnamon's randomized Vizing algorithm.
+//
+// The uncolored edges are processed in a random order, each with a fan centered at a random endpoint whose missing
+// colors are chosen at random. Random missing colors make long alternating paths unlikely, and with a cap on the
+// path length a fan whose path is too long is abandoned before changing anything: its edge is retried later, when new
+// random choices give it another path. If a whole pass makes no progress the cap is doubled, so the algorithm always
+// terminates. The coloring is reproducible for a given seed.
+public class RandomizedVizing implements EdgeColoringAlgorithm {
+
+    private final long seed;
+
+    // Longest alternating path flipped by a fan, 0 for no cap
+    private final int maxPathLength;
+
+    // Number of fans abandoned because of the cap during the last call to color
+    private long retries;
+
+    public RandomizedVizing(long seed) {
+        this(seed, 0);
+    }
+
+    public RandomizedVizing(long seed, int maxPathLength) {
+        if (maxPathLength < 0) {
+            throw new IllegalArgumentException("Maximum path length must be non-negative.");
+        }
+        this.seed = seed;
+        this.maxPathLength = maxPathLength;
+    }
+
+    @Override
+    public EdgeColoring color(Graph graph) {
+
+        int maxColor = graph.maxDegree() + 1;
+        EdgeColoring coloring = new EdgeColoring(graph, maxColor);
+        SplittableRandom rand = new SplittableRandom(seed);
+        retries = 0;
+
+        int[] pending = new int[graph.m()];
+        for (int e = 0; e < pending.length; e++) {
+            pending[e] = e;
+        }
+
+        int cap = maxPathLength;
+        while (pending.length > 0) {
+
+            GraphGenerator.shuffle(pending, rand);
+            int[] deferred = new int[pending.length];
+            int count = 0;
+
+            for (int edgeId : pending) {
+                int center = rand.nextBoolean() ? graph.edgeU(edgeId) : graph.edgeV(edgeId);
+                VizingFan fan = new VizingFan(center, edgeId, coloring, null, rand);
+
+                // Abandon the fan, which has not changed the coloring yet, if its path is too long
+                if (cap > 0 && fan.getPathLength(cap) < 0) {
+                    deferred[count++] = edgeId;
+                    retries++;
+                    continue;
+                }
+
+                if (!fan.activate()) {
+                    throw new IllegalStateException("Failed to color edge " + edgeId + ". This should not happen if the algorithm is correct.");
+                }
+            }
+
+            if (count == pending.length) {
+                cap = (cap > Integer.MAX_VALUE / 2) ? 0 : 2 * cap;
+            }
+            pending = Arrays.copyOf(deferred, count);
+        }
+
+        return coloring;
+    }
+
+    // Get the number of fans abandoned because their path exceeded the cap during the last coloring
+    public long getRetries() {
+        return retries;
+    }
+}
\ No newline at end of file
@@ -1,52 +1,195 @@
 import java.util.ArrayList;
-import java.util.Collections;
-import java.util.HashMap;
-import java.util.HashSet;
 import java.util.List;
-import java.util.Map;
-import java.util.Set;
 
+// A separable collection of u-components: every (vertex, missing color) pair is reserved by at most one u-component,
+// so u-components whose alternating paths use different pairs of colors can be extended one after another without
+// interfering. Recoloring an edge or flipping a path only changes the missing colors of its endpoints, and the
+// u-components that reserved one of those colors are damaged. A damaged u-component is repaired by reserving another
+// missing color of the same vertex, and only destroyed if there is none (or if repairing is disabled).
 public class SeparableCollection {
 
+    private static final int NONE = -1;
+
     // The edge coloring that this separable collection is built on
     private EdgeColoring edgeColoring;
 
-    // The separable collection of UComponents
-    private Set<UComponent> uComponents;
+    // The separable collection of UComponents, indexed by their id, with null for the removed ones
+    private List<UComponent> uComponents;
+    private int size;
+
+    // Map from vertices and their missing colors, keyed by vertex * (maxColor + 1) + color, to UComponent ids
+    private LongIntHashMap vertexColorToUComponent;
+    private long stride;
+
+    // Whether damaged u-components are repaired rather than destroyed
+    private boolean repairDamaged = true;
 
-    // Map from vertices and their missing colors to UComponents
-    private Map<Pair<Integer, Integer>, UComponent> vertexColorToUComponent;
+    // Number of damaged u-components that were destroyed and repaired
+    private long destroyed;
+    private long repaired;
 
     public SeparableCollection(EdgeColoring edgeColoring) {
+        this(edgeColoring, 16);
+    }
+
+    // Creates an empty collection with room for about 'expectedSize' u-edges
+    public SeparableCollection(EdgeColoring edgeColoring, int expectedSize) {
         this.edgeColoring = edgeColoring;
-        this.uComponents = new HashSet<>();
-        this.vertexColorToUComponent = new HashMap<>();
+        this.uComponents = new ArrayList<>(expectedSize);
+        this.vertexColorToUComponent = new LongIntHashMap(2 * expectedSize);
+        this.stride = edgeColoring.maxColor() + 1L;
     }
 
     public void addUComponent(UComponent uComponent) {
-        uComponents.add(uComponent);
+        if (uComponent.id != NONE) {
+            throw new IllegalArgumentException("u-component is already in a separable collection");
+        }
         for (int i = 0; i < uComponent.size(); i++) {
-            if (vertexColorToUComponent.containsKey(new Pair<>(uComponent.vertices[i], uComponent.missingColors[i]))) {
+            if (vertexColorToUComponent.containsKey(key(uComponent.vertices[i], uComponent.missingColors[i]))) {
                 throw new IllegalArgumentException("u-component already exists for vertex " + uComponent.vertices[i] + " with color " + uComponent.missingColors[i]);
             }
-            vertexColorToUComponent.put(new Pair<>(uComponent.vertices[i], uComponent.missingColors[i]), uComponent);
+        }
+        uComponent.id = uComponents.size();
+        uComponents.add(uComponent);
+        size++;
+        for (int i = 0; i < uComponent.size(); i++) {
+            vertexColorToUComponent.put(key(uComponent.vertices[i], uComponent.missingColors[i]), uComponent.id);
         }
     }
 
     // Gets the UComponent for a given vertex and its missing color
     public UComponent getUComponent(int vertex, int missingColor) {
-        return vertexColorToUComponent.get(new Pair<>(vertex, missingColor));
+        int id = vertexColorToUComponent.get(key(vertex, missingColor), NONE);
+        return (id == NONE) ? null : uComponents.get(id);
+    }
+
+    // Checks if a u-component relies on a color being missing at a vertex
+    public boolean isReserved(int vertex, int color) {
+        return vertexColorToUComponent.containsKey(key(vertex, color));
     }
 
     public boolean destroyDamagedComponent(int vertex, int color) {
         // Remove the u-component from the collection
-        UComponent uComponent = vertexColorToUComponent.remove(new Pair<>(vertex, color));
+        UComponent uComponent = getUComponent(vertex, color);
         if (uComponent != null) {
-            uComponents.remove(uComponent);
+            removeUComponent(uComponent);
+            destroyed++;
             return true;
         }
         return false;
     }
+
+    // Updates the u-component that reserved 'color' at vertex, which is being used there. The u-component reserves
+    // another missing color of the vertex instead and is reindexed, or is destroyed if there is no free missing color
+    // or repairing is disabled. Returns false if no u-component reserved the color.
+    public boolean updateDamagedComponent(int vertex, int color) {
+
+        UComponent uComponent = getUComponent(vertex, color);
+        if (uComponent == null) {
+            return false;
+        }
+
+        int replacement = repairDamaged ? findFreeMissingColor(vertex, color) : 0;
+        if (replacement == 0) {
+            return destroyDamagedComponent(vertex, color);
+        }
+
+        for (int i = 0; i < uComponent.size(); i++) {
+            if (uComponent.vertices[i] == vertex && uComponent.missingColors[i] == color) {
+                reindex(uComponent, i, replacement);
+            }
+        }
+        repaired++;
+        return true;
+    }
+
+    // Changes the missing color reserved by the ith vertex of a u-component in the collection
+    public void reindex(UComponent uComponent, int i, int color) {
+        if (!contains(uComponent)) {
+            throw new IllegalArgumentException("u-component is not in this separable collection");
+        }
+        int vertex = uComponent.vertices[i];
+        if (vertexColorToUComponent.containsKey(key(vertex, color))) {
+            throw new IllegalArgumentException("u-component already exists for vertex " + vertex + " with color " + color);
+        }
+        vertexColorToUComponent.remove(key(vertex, uComponent.missingColors[i]));
+        uComponent.missingColors[i] = color;
+        vertexColorToUComponent.put(key(vertex, color), uComponent.id);
+    }
+
+    // Finds a missing color of the vertex, other than 'excluded', that no u-component reserved, or 0 if there is none.
+    // The scan starts at a pseudo-random position, so that the repaired colors are spread like freshly sampled ones
+    // (which keeps their alternating paths short) and repeated repairs do not probe the same reserved colors first.
+    public int findFreeMissingColor(int vertex, int excluded) {
+        Palette palette = edgeColoring.getMissingColors();
+        int size = palette.size(vertex);
+        long mix = (key(vertex, excluded) + repaired + destroyed) * 0x9E3779B97F4A7C15L;
+        int start = (size == 0) ? 0 : (int) ((mix >>> 33) % size);
+        for (int i = 0, j = start; i < size; i++, j = (j + 1 == size) ? 0 : j + 1) {
+            int color = palette.get(vertex, j);
+            if (color != excluded && !isReserved(vertex, color)) {
+                return color;
+            }
+        }
+        return 0;
+    }
+
+    // Enable or disable the repair of damaged u-components (they are destroyed when disabled)
+    public void setRepairDamaged(boolean repairDamaged) {
+        this.repairDamaged = repairDamaged;
+    }
+
+    // Number of damaged u-components that were destroyed
+    public long getDestroyedCount() {
+        return destroyed;
+    }
+
+    // Number of damaged u-components that were repaired
+    public long getRepairedCount() {
+        return repaired;
+    }
+
+    // Removes a u-component and releases all of its (vertex, missing color) pairs
+    public boolean removeUComponent(UComponent uComponent) {
+        if (!contains(uComponent)) {
+            return false;
+        }
+        for (int i = 0; i < uComponent.size(); i++) {
+            vertexColorToUComponent.remove(key(uComponent.vertices[i], uComponent.missingColors[i]));
+        }
+        uComponents.set(uComponent.id, null);
+        uComponent.id = NONE;
+        size--;
+        return true;
+    }
+
+    public boolean contains(UComponent uComponent) {
+        return uComponent.id != NONE && uComponent.id < uComponents.size() && uComponents.get(uComponent.id) == uComponent;
+    }
+
+    // Number of u-components in the collection
+    public int size() {
+        return size;
+    }
+
+    // Gets the u-components in the collection, in the order they were added
+    public List<UComponent> getUComponents() {
+        List<UComponent> result = new ArrayList<>(size);
+        for (UComponent uComponent : uComponents) {
+            if (uComponent != null) {
+                result.add(uComponent);
+            }
+        }
+        return result;
+    }
+
+    public EdgeColoring getEdgeColoring() {
+        return edgeColoring;
+    }
+
+    private long key(int vertex, int color) {
+        return vertex * stride + color;
+    }
 }
 
 abstract class UComponent {
@@ -60,6 +203,9 @@ abstract class UComponent {
     // The edges in the u-component
     protected Edge[] edges;
 
+    // Index of the u-component in its separable collection, or -1 if it is in none
+    int id = -1;
+
     // Initializes the u-component with vertices and their missing colors
     public UComponent(int[] vertices, int[] missingColors, Edge[] edges) {
         this.vertices = vertices;
@@ -88,15 +234,29 @@ abstract class UComponent {
         return vertices.length;
     }
 
-    public abstract void extend(EdgeColoring coloring, SeparableCollection collection);
+    // Colors an uncolored edge of the u-component with its reserved missing colors, flipping at most one alternating
+    // path. The u-component leaves the collection, and the u-components damaged by the flip are destroyed. Returns
+    // false, with nothing changed, if the alternating path would take a reserved color away from the u-component.
+    public abstract boolean extend(EdgeColoring coloring, SeparableCollection collection);
 
-    public abstract void socialize(EdgeColoring coloring, int c1, int c2);
+    // Called when the (c1, c2)-alternating path could not be used to extend the u-component. Reserves other missing
+    // colors for it and puts it back in the collection, returns false if there are none.
+    public abstract boolean socialize(EdgeColoring coloring, SeparableCollection collection, int c1, int c2);
 }
 
+// An uncolored edge (u, v) with a missing color reserved at each endpoint
 class UEdge extends UComponent {
 
+    // Id of the edge in the graph, or -1 until it is looked up
+    private int edgeId;
+
     public UEdge(int u, int v, int colorAtU, int colorAtV) {
+        this(-1, u, v, colorAtU, colorAtV);
+    }
+
+    public UEdge(int edgeId, int u, int v, int colorAtU, int colorAtV) {
         super(new int[] {u, v}, new int[] {colorAtU, colorAtV}, new Edge[] {new Edge(u, v)});
+        this.edgeId = edgeId;
     }
 
     public int u() {
@@ -127,18 +287,61 @@ class UEdge extends UComponent {
         return vertices;
     }
 
+    public int edgeId(EdgeColoring coloring) {
+        if (edgeId < 0) {
+            edgeId = coloring.getGraph().findEdge(u(), v());
+        }
+        return edgeId;
+    }
+
     @Override
-    public void extend(EdgeColoring coloring, SeparableCollection collection) {
-        
-        // Flip the alternating path starting from v
-        coloring.FlipAlternatingPath(vertices[1], missingColors[0], missingColors[1]);
+    public boolean extend(EdgeColoring coloring, SeparableCollection collection) {
+
+        int u = u();
+        int v = v();
+        int alpha = colorAtU();
+        int beta = colorAtV();
+
+        if (!coloring.isMissing(u, alpha) || !coloring.isMissing(v, beta)) {
+            throw new IllegalStateException("u-edge (" + u + ", " + v + ") lost its missing colors. This should not happen if the algorithm is correct.");
+        }
+
+        // Flipping the (alpha, beta)-path from v frees alpha at v. If the path ends at u it would also take alpha from
+        // u (the path and the edge then form an odd cycle), so the u-edge must be socialized instead.
+        if (!coloring.isMissing(v, alpha) && coloring.alternatingPathEnd(v, alpha, beta) == u) {
+            return false;
+        }
+
+        collection.removeUComponent(this);
+        coloring.FlipAlternatingPath(v, alpha, beta, collection);
 
         // Set the edge color for the edge u-v
-        coloring.setEdgeColor(new Edge(vertices[0], vertices[1]), missingColors[0], collection);
+        if (!coloring.setEdgeColor(edgeId(coloring), alpha, collection)) {
+            throw new IllegalStateException("Failed to color u-edge (" + u + ", " + v + ") with color " + alpha + ". This should not happen if the algorithm is correct.");
+        }
+        return true;
     }
 
     @Override
-    public void socialize(EdgeColoring coloring, int c1, int c2) {
+    public boolean socialize(EdgeColoring coloring, SeparableCollection collection, int c1, int c2) {
 
+        collection.removeUComponent(this);
+
+        // Keep the color at u and move the color at v away from the pair of the failed path
+        int color = 0;
+        Palette palette = coloring.getMissingColors();
+        for (int i = 0; i < palette.size(v()) && color == 0; i++) {
+            int candidate = palette.get(v(), i);
+            if (candidate != c1 && candidate != c2 && !collection.isReserved(v(), candidate)) {
+                color = candidate;
+            }
+        }
+        if (color == 0) {
+            return false;
+        }
+
+        setColorAtV(color);
+        collection.addUComponent(this);
+        return true;
     }
-}
+}
\ No newline at end of file
@@ -1,6 +1,10 @@
 import java.util.*;
 import java.io.*;
 import java.lang.*;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.file.Files;
+import java.nio.file.Path;
 
 public class Test {
 
@@ -19,8 +23,11 @@ public class Test {
         System.out.println("Running Vizing's algorithm...");
 
         Vizing vizing = new Vizing();
+        ColoringMetrics metrics = new ColoringMetrics();
+        vizing.setMetrics(metrics);
         EdgeColoring edgeColoring1 = vizing.color(graph);
         edgeColoring1.isValid(true);
+        System.out.println("Metrics: " + metrics.toJson());
 
         getMemoryStatistics();
 
@@ -33,6 +40,15 @@ public class Test {
 
         getMemoryStatistics();
 
+        // Near-linear Vizing
+        System.out.println("Running near-linear Vizing algorithm...");
+
+        NearLinearVizing nearLinearVizing = new NearLinearVizing();
+        EdgeColoring edgeColoring4 = nearLinearVizing.color(graph);
+        edgeColoring4.isValid(true);
+
+        getMemoryStatistics();
+
         // Greedy
         System.out.println("Running Greedy algorithm...");
 
@@ -41,6 +57,36 @@ public class Test {
         edgeColoring3.isValid(true);
 
         getMemoryStatistics();
+
+        // Greedy with repair to Delta + 1 colors
+        System.out.println("Running Greedy algorithm with repair...");
+
+        GreedyRepair greedyRepair = new GreedyRepair();
+        EdgeColoring edgeColoring5 = greedyRepair.color(graph);
+        edgeColoring5.isValid(true);
+
+        getMemoryStatistics();
+
+        // (1 + epsilon)Delta colors with Euler partitions
+        System.out.println("Running Euler split Vizing algorithm...");
+
+        EulerSplitVizing eulerSplitVizing = new EulerSplitVizing(0.1f);
+        EdgeColoring edgeColoring6 = eulerSplitVizing.color(graph);
+        edgeColoring6.isValid(true);
+
+        getMemoryStatistics();
+
+        // Targeted checks of the individual algorithms, loaders and storage paths
+        System.out.println("Graph loader test " + (testGraphLoader() ? "passed" : "failed"));
+        System.out.println("Dynamic edge coloring test " + (testDynamicEdgeColoring() ? "passed" : "failed"));
+        System.out.println("Parallel Vizing test " + (testParallelVizing() ? "passed" : "failed"));
+        System.out.println("Euler bipartite test " + (testEulerBipartite() ? "passed" : "failed"));
+        System.out.println("Randomized Vizing test " + (testRandomizedVizing() ? "passed" : "failed"));
+        System.out.println("Multi-step Vizing test " + (testMultiStepVizing() ? "passed" : "failed"));
+        System.out.println("Coloring IO test " + (testColoringIO() ? "passed" : "failed"));
+        System.out.println("Off-heap coloring test " + (testOffHeapColoring() ? "passed" : "failed"));
+        System.out.println("Euler split color bound test " + (testEulerSplitColors() ? "passed" : "failed"));
+        System.out.println("Edge and vertex ordering test " + (testOrderings() ? "passed" : "failed"));
     }
 
     public static Graph createRandomGraph(int n, float density, boolean bipartite) {
@@ -54,43 +100,360 @@ public class Test {
             n++;
         }
 
-        // Calculate the number of edges based on the density
-        int m = (int) (density * n * (n - 1) / 2); // Maximum number of edges in a complete graph
+        // Seeded generators sample the edges directly into the graph, in parallel
+        long seed = new Random().nextLong();
+        return bipartite ? GraphGenerator.bipartite(n, density, seed) : GraphGenerator.gnp(n, density, seed);
+    }
 
-        if (bipartite) {
-            m = (int) (density * (n / 2) * (n / 2 - 1)); // Maximum edges in a bipartite graph
+    // Get the largest color used by the coloring
+    public static int largestColor(EdgeColoring coloring) {
+        int largest = 0;
+        for (int e = 0; e < coloring.getGraph().m(); e++) {
+            largest = Math.max(largest, coloring.getEdgeColor(e));
         }
+        return largest;
+    }
 
-        HashMap<Integer, Set<Integer>> edges = new HashMap<Integer, Set<Integer>>();
+    // Loads a small edge list written as text and as binary, and compares both with the graph built from the same edges
+    public static boolean testGraphLoader() {
+
+        int[] us = {0, 1, 2, 3, 4, 0, 5, 2, 1, 7};
+        int[] vs = {1, 2, 3, 4, 0, 2, 6, 0, 1, 3}; // (2, 0) duplicates (0, 2) and (1, 1) is a self-loop
+        Graph expected = new Graph(8, us, vs);
+
+        try {
+            Path text = Files.createTempFile("edges", ".txt");
+            Path binary = Files.createTempFile("edges", ".bin");
+            try {
+                StringBuilder lines = new StringBuilder("# test graph\n");
+                ByteBuffer buffer = ByteBuffer.allocate(8 * us.length).order(ByteOrder.LITTLE_ENDIAN);
+                for (int i = 0; i < us.length; i++) {
+                    lines.append(us[i]).append('\t').append(vs[i]).append('\n');
+                    buffer.putInt(us[i]).putInt(vs[i]);
+                }
+                Files.writeString(text, lines);
+                Files.write(binary, buffer.array());
+
+                Graph[] loaded = {GraphLoader.loadText(text), GraphLoader.loadText(text, 8, 2), GraphLoader.loadBinary(binary)};
+                for (Graph graph : loaded) {
+                    if (graph.n() != expected.n() || graph.m() != expected.m() || graph.maxDegree() != expected.maxDegree()) {
+                        System.out.println("Loaded graph has n = " + graph.n() + ", m = " + graph.m() + " instead of n = " + expected.n() + ", m = " + expected.m());
+                        return false;
+                    }
+                    for (int e = 0; e < expected.m(); e++) {
+                        if (graph.edgeU(e) != expected.edgeU(e) || graph.edgeV(e) != expected.edgeV(e)) {
+                            System.out.println("Loaded graph differs at edge " + e);
+                            return false;
+                        }
+                    }
+                }
+
+                try {
+                    GraphLoader.loadText(text, 8, 0);
+                    System.out.println("Loading with 0 threads did not fail");
+                    return false;
+                } catch (IllegalArgumentException e) {
+                    // Expected
+                }
+            } finally {
+                Files.deleteIfExists(text);
+                Files.deleteIfExists(binary);
+            }
+        } catch (IOException e) {
+            System.out.println("Failed to load the graph: " + e);
+            return false;
+        }
 
-        // Initialize the edges map with empty sets for each vertex
-        for (int i = 0; i < n; i++) {
-            edges.put(i, new HashSet<Integer>());
+        return true;
+    }
+
+    // Applies a seeded random sequence of insertions and deletions, growing the graph and then shrinking it so that the
+    // maximum degree rises and falls, and checks the coloring after every update
+    public static boolean testDynamicEdgeColoring() {
+
+        int n = 60;
+        Random random = new Random(42);
+        DynamicEdgeColoring dynamic = new DynamicEdgeColoring(n);
+        List<int[]> present = new ArrayList<>();
+
+        for (int step = 0; step < 12000; step++) {
+
+            // Mostly insertions in the first half of each round of 3000 updates, mostly deletions in the second half
+            boolean insert = present.isEmpty() || random.nextInt(10) < ((step / 1500) % 2 == 0 ? 8 : 2);
+            if (insert) {
+                int u = random.nextInt(n);
+                int v = random.nextInt(n);
+                if (dynamic.insertEdge(u, v)) {
+                    present.add(new int[] {u, v});
+                }
+            } else {
+                int i = random.nextInt(present.size());
+                int[] edge = present.get(i);
+                present.set(i, present.get(present.size() - 1));
+                present.remove(present.size() - 1);
+                if (!dynamic.deleteEdge(edge[0], edge[1])) {
+                    System.out.println("Failed to delete the present edge (" + edge[0] + ", " + edge[1] + ") at step " + step);
+                    return false;
+                }
+            }
+
+            if (dynamic.m() != present.size() || !dynamic.isValid() || dynamic.maxColor() > dynamic.maxDegree() + 1) {
+                System.out.println("Invalid dynamic coloring at step " + step + " with m = " + dynamic.m() + ", maxDegree = " + dynamic.maxDegree() + ", maxColor = " + dynamic.maxColor());
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    // Colors seeded graphs with 2 and 4 workers, and checks that the colorings are valid with at most Delta + 1 colors
+    public static boolean testParallelVizing() {
+
+        Graph[] graphs = {GraphGenerator.gnp(1500, 0.02, 21), GraphGenerator.bipartite(1500, 0.02, 22), GraphGenerator.powerLaw(3000, 8, 2.5, 23)};
+        for (Graph graph : graphs) {
+            for (int workers : new int[] {2, 4}) {
+                EdgeColoring coloring = new ParallelVizing(workers).color(graph);
+                if (!coloring.isValid(false) || largestColor(coloring) > graph.maxDegree() + 1) {
+                    System.out.println("Parallel Vizing with " + workers + " workers uses " + largestColor(coloring) + " colors for Delta = " + graph.maxDegree() + " or is not valid");
+                    return false;
+                }
+            }
+        }
+
+        return true;
+    }
+
+    // Checks that EulerBipartite colors seeded bipartite graphs with exactly Delta colors
+    public static boolean testEulerBipartite() {
+
+        Graph[] graphs = {GraphGenerator.bipartite(1000, 0.05, 31), GraphGenerator.bipartite(1501, 0.01, 32), GraphGenerator.regularBipartite(2000, 16, 33)};
+        for (Graph graph : graphs) {
+            EdgeColoring coloring = new EulerBipartite(2).color(graph);
+            if (!coloring.isValid(false) || largestColor(coloring) != graph.maxDegree()) {
+                System.out.println("Euler bipartite coloring uses " + largestColor(coloring) + " colors for Delta = " + graph.maxDegree() + " or is not valid");
+                return false;
+            }
         }
 
-        // Randomly add edges
-        Random rand = new Random();
+        return true;
+    }
 
-        int edgesAdded = 0;
-        while (edgesAdded < m) {
-            int u = rand.nextInt(n);
-            int v = rand.nextInt(n);
+    // Colors seeded graphs with random fans, with and without a cap on the path length, and checks that the colorings
+    // are valid with at most Delta + 1 colors
+    public static boolean testRandomizedVizing() {
+
+        Graph[] graphs = {GraphGenerator.gnp(1500, 0.02, 41), GraphGenerator.powerLaw(3000, 8, 2.5, 42)};
+        for (Graph graph : graphs) {
+            for (int maxPathLength : new int[] {0, 4}) {
+                EdgeColoring coloring = new RandomizedVizing(43, maxPathLength).color(graph);
+                if (!coloring.isValid(false) || largestColor(coloring) > graph.maxDegree() + 1) {
+                    System.out.println("Randomized Vizing with path cap " + maxPathLength + " uses " + largestColor(coloring) + " colors for Delta = " + graph.maxDegree() + " or is not valid");
+                    return false;
+                }
+            }
+        }
+
+        return true;
+    }
 
-            if (bipartite) {
-                // Ensure bipartite condition by making u even and v odd
-                if (u % 2 == 1) u--;
-                if (v % 2 == 0) v++;
+    // Colors seeded graphs with multi-step Vizing chains, with the default caps and with short paths that force
+    // truncations, and checks that the colorings are valid with at most Delta + 1 colors
+    public static boolean testMultiStepVizing() {
+
+        Graph[] graphs = {GraphGenerator.gnp(1500, 0.02, 51), GraphGenerator.powerLaw(3000, 8, 2.5, 52)};
+        for (Graph graph : graphs) {
+            for (int maxPathLength : new int[] {0, 2, 3}) {
+                MultiStepVizing multiStepVizing = new MultiStepVizing(53, maxPathLength, 0);
+                EdgeColoring coloring = multiStepVizing.color(graph);
+                if (!coloring.isValid(false) || largestColor(coloring) > graph.maxDegree() + 1) {
+                    System.out.println("Multi-step Vizing with path cap " + maxPathLength + " uses " + largestColor(coloring) + " colors for Delta = " + graph.maxDegree() + " or is not valid");
+                    return false;
+                }
+                if (maxPathLength > 0 && multiStepVizing.getTruncations() == 0) {
+                    System.out.println("Multi-step Vizing with path cap " + maxPathLength + " never truncated a path");
+                    return false;
+                }
             }
+        }
 
-            if (u != v && !edges.get(u).contains(v)) {
-                edges.get(u).add(v);
-                edges.get(v).add(u); // Undirected graph, add both directions
-                edgesAdded++;
+        return true;
+    }
+
+    // Writes full and partial colorings and reads them back, checks that a coloring is rejected on a graph with other
+    // edges, and resumes runs of Vizing from saved complete and partial colorings
+    public static boolean testColoringIO() {
+
+        Graph graph = GraphGenerator.gnp(300, 0.05f, 7);
+        EdgeColoring full = new Vizing().color(graph);
+        EdgeColoring partial = new EdgeColoring(graph, full.maxColor());
+        for (int e = 0; e < graph.m(); e += 2) {
+            partial.setEdgeColor(e, full.getEdgeColor(e));
+        }
+
+        try {
+            Path path = Files.createTempFile("coloring", ".bin");
+            try {
+                for (EdgeColoring coloring : new EdgeColoring[] {full, partial}) {
+                    ColoringIO.write(coloring, path);
+                    EdgeColoring loaded = ColoringIO.read(graph, path);
+                    if (loaded.maxColor() != coloring.maxColor()) {
+                        System.out.println("Loaded coloring has " + loaded.maxColor() + " colors instead of " + coloring.maxColor());
+                        return false;
+                    }
+                    for (int e = 0; e < graph.m(); e++) {
+                        if (loaded.getEdgeColor(e) != coloring.getEdgeColor(e)) {
+                            System.out.println("Loaded coloring differs at edge " + e);
+                            return false;
+                        }
+                    }
+                }
+
+                // Same number of vertices and edges, but one edge moved to another endpoint
+                int[] us = new int[graph.m()];
+                int[] vs = new int[graph.m()];
+                for (int e = 0; e < graph.m(); e++) {
+                    us[e] = graph.edgeU(e);
+                    vs[e] = graph.edgeV(e);
+                }
+                int w = 0;
+                while (w == us[0] || graph.findEdge(us[0], w) >= 0) {
+                    w++;
+                }
+                vs[0] = w;
+                Graph other = new Graph(graph.n(), us, vs);
+                try {
+                    ColoringIO.read(other, path);
+                    System.out.println("Coloring was loaded onto a graph with other edges");
+                    return false;
+                } catch (IllegalArgumentException e) {
+                    // Expected
+                }
+
+                // Resuming from the full coloring leaves nothing to color, and resuming from the partial one completes it
+                Vizing vizing = new Vizing();
+                vizing.setCheckpoint(path, 3600000);
+                ColoringIO.write(full, path);
+                EdgeColoring resumed = vizing.color(graph);
+                for (int e = 0; e < graph.m(); e++) {
+                    if (resumed.getEdgeColor(e) != full.getEdgeColor(e)) {
+                        System.out.println("Run resumed from a complete coloring changed edge " + e);
+                        return false;
+                    }
+                }
+                ColoringIO.write(partial, path);
+                resumed = vizing.color(graph);
+                if (!ColoringValidator.validate(resumed).isValid() || Files.exists(path)) {
+                    System.out.println("Run resumed from a partial coloring is not valid or did not remove its checkpoint");
+                    return false;
+                }
+            } finally {
+                Files.deleteIfExists(path);
             }
-        } // This is only efficient if m = o(n^2)
+        } catch (IOException e) {
+            System.out.println("Failed to write or read the coloring: " + e);
+            return false;
+        }
 
-        Graph graph = new Graph(edges);
-        return graph;
+        return true;
+    }
+
+    // Colors an off-heap copy of a graph into direct and memory-mapped storage, and checks that the colorings are
+    // valid and the same as the coloring on the heap
+    public static boolean testOffHeapColoring() {
+
+        Graph graph = GraphGenerator.gnp(500, 0.04f, 11);
+        EdgeColoring expected = new Vizing().color(graph);
+
+        try {
+            Path directory = Files.createTempDirectory("offheap");
+            try (OffHeapStorage direct = OffHeapStorage.direct(); OffHeapStorage mapped = OffHeapStorage.mapped(directory)) {
+                for (OffHeapStorage storage : new OffHeapStorage[] {direct, mapped}) {
+                    Graph offHeapGraph = OffHeapGraph.copyOf(graph, storage);
+                    Vizing vizing = new Vizing();
+                    vizing.setStorage(storage);
+                    EdgeColoring coloring = vizing.color(offHeapGraph);
+
+                    ColoringValidator.Result result = ColoringValidator.validate(coloring);
+                    if (!result.isValid()) {
+                        System.out.println("Off-heap coloring is not valid: " + result);
+                        return false;
+                    }
+                    for (int e = 0; e < graph.m(); e++) {
+                        if (coloring.getEdgeColor(e) != expected.getEdgeColor(e)) {
+                            System.out.println("Off-heap coloring differs from the heap coloring at edge " + e);
+                            return false;
+                        }
+                    }
+                }
+            } finally {
+                Files.deleteIfExists(directory);
+            }
+        } catch (IOException e) {
+            System.out.println("Failed to allocate off-heap storage: " + e);
+            return false;
+        }
+
+        return true;
+    }
+
+    // Checks that the Euler split colorings of graphs with and without odd cycles are valid and use at most
+    // (1 + epsilon)Delta colors
+    public static boolean testEulerSplitColors() {
+
+        Graph[] graphs = {GraphGenerator.gnp(2000, 0.1f, 3), GraphGenerator.bipartite(2000, 0.1f, 5), GraphGenerator.gnp(600, 0.5f, 9)};
+        float[] epsilons = {0.05f, 0.1f, 0.3f, 1f};
+        for (Graph graph : graphs) {
+            for (float epsilon : epsilons) {
+                EulerSplitVizing eulerSplitVizing = new EulerSplitVizing(epsilon);
+                EdgeColoring coloring = eulerSplitVizing.color(graph);
+                if (!ColoringValidator.validate(coloring).isValid() || coloring.maxColor() > (1 + epsilon) * graph.maxDegree()) {
+                    System.out.println("Euler split with epsilon = " + epsilon + " and " + eulerSplitVizing.getParts() + " parts uses "
+                            + coloring.maxColor() + " colors for Delta = " + graph.maxDegree() + " or is not valid");
+                    return false;
+                }
+            }
+        }
+
+        return true;
+    }
+
+    // Colors a seeded graph in every edge order, and relabeled by every vertex ordering, and checks that the colorings
+    // are valid with at most Delta + 1 colors and that the relabeled colorings map back edge by edge
+    public static boolean testOrderings() {
+
+        Graph graph = GraphGenerator.gnp(1500, 0.02, 61);
+        Graph bipartite = GraphGenerator.bipartite(1500, 0.02, 62);
+        for (EdgeOrder edgeOrder : EdgeOrder.values()) {
+            Vizing vizing = new Vizing();
+            vizing.setEdgeOrder(edgeOrder, 63);
+            VizingBipartite vizingBipartite = new VizingBipartite();
+            vizingBipartite.setEdgeOrder(edgeOrder, 63);
+            EdgeColoring[] colorings = {vizing.color(graph), vizingBipartite.color(bipartite)};
+            for (EdgeColoring coloring : colorings) {
+                if (!coloring.isValid(false) || largestColor(coloring) > coloring.getGraph().maxDegree() + 1) {
+                    System.out.println("Coloring in edge order " + edgeOrder + " uses " + largestColor(coloring) + " colors for Delta = " + coloring.getGraph().maxDegree() + " or is not valid");
+                    return false;
+                }
+            }
+        }
+
+        for (VertexOrdering.Strategy strategy : VertexOrdering.Strategy.values()) {
+            VertexOrdering ordering = VertexOrdering.of(graph, strategy);
+            EdgeColoring relabeled = new Vizing().color(ordering.getGraph());
+            EdgeColoring coloring = ordering.mapBack(relabeled);
+            if (!coloring.isValid(false) || largestColor(coloring) > graph.maxDegree() + 1) {
+                System.out.println("Coloring with vertex ordering " + strategy + " uses " + largestColor(coloring) + " colors for Delta = " + graph.maxDegree() + " or is not valid");
+                return false;
+            }
+            for (int e = 0; e < graph.m(); e++) {
+                if (coloring.getEdgeColor(e) != relabeled.getEdgeColor(ordering.newEdgeId(e))) {
+                    System.out.println("Coloring with vertex ordering " + strategy + " was not mapped back at edge " + e);
+                    return false;
+                }
+            }
+        }
+
+        return true;
     }
 
     public static boolean testPathFlip() {
@@ -0,0 +1,309 @@
+import java.util.Arrays;
+
+// Table from (vertex, color) to a value, where the key is stored as vertex * (maxColor + 1) + color
+abstract class VertexColorTable {
+
+    // Value returned for a (vertex, color) pair without an entry
+    public static final int NONE = -1;
+
+    // Densely index the table when it has at most this many entries per stored adjacency slot
+    private static final long DENSE_ENTRIES_PER_SLOT = 16;
+
+    protected final int stride;
+
+    protected VertexColorTable(int maxColor) {
+        this.stride = maxColor + 1;
+    }
+
+    // Chooses a dense array when n * (maxColor + 1) is affordable, and a hash table otherwise
+    public static VertexColorTable create(int n, int m, int maxColor) {
+        long entries = (long) n * (maxColor + 1);
+        long slots = 2L * m + n;
+        if (entries <= Integer.MAX_VALUE - 8 && entries <= DENSE_ENTRIES_PER_SLOT * slots) {
+            return new DenseVertexColorTable(n, maxColor);
+        }
+        return new SparseVertexColorTable(maxColor, 2 * m);
+    }
+
+    // Same choice for a table stored off-heap, where a dense table is not limited to 2^31 entries
+    public static VertexColorTable create(int n, int m, int maxColor, OffHeapStorage storage) {
+        long entries = (long) n * (maxColor + 1);
+        long slots = 2L * m + n;
+        if (entries <= DENSE_ENTRIES_PER_SLOT * slots) {
+            return new OffHeapDenseVertexColorTable(n, maxColor, storage);
+        }
+        return new OffHeapSparseVertexColorTable(maxColor, 2L * m, storage);
+    }
+
+    public abstract int get(int vertex, int color);
+
+    // Stores value at (vertex, color), storing NONE is the same as removing the entry
+    public abstract void put(int vertex, int color, int value);
+
+    public abstract void remove(int vertex, int color);
+
+    public boolean contains(int vertex, int color) {
+        return get(vertex, color) != NONE;
+    }
+}
+
+class DenseVertexColorTable extends VertexColorTable {
+
+    private final int[] table;
+
+    public DenseVertexColorTable(int n, int maxColor) {
+        super(maxColor);
+        this.table = new int[n * stride];
+        Arrays.fill(table, NONE);
+    }
+
+    @Override
+    public int get(int vertex, int color) {
+        return table[vertex * stride + color];
+    }
+
+    @Override
+    public void put(int vertex, int color, int value) {
+        table[vertex * stride + color] = value;
+    }
+
+    @Override
+    public void remove(int vertex, int color) {
+        table[vertex * stride + color] = NONE;
+    }
+}
+
+class SparseVertexColorTable extends VertexColorTable {
+
+    private final LongIntHashMap table;
+
+    public SparseVertexColorTable(int maxColor, int expectedSize) {
+        super(maxColor);
+        this.table = new LongIntHashMap(expectedSize);
+    }
+
+    @Override
+    public int get(int vertex, int color) {
+        return table.get((long) vertex * stride + color, NONE);
+    }
+
+    @Override
+    public void put(int vertex, int color, int value) {
+        if (value == NONE) {
+            remove(vertex, color);
+        } else {
+            table.put((long) vertex * stride + color, value);
+        }
+    }
+
+    @Override
+    public void remove(int vertex, int color) {
+        table.remove((long) vertex * stride + color);
+    }
+}
+
+// Dense table in off-heap memory. Values are stored plus one, so that the zeroed memory of a new array is empty.
+class OffHeapDenseVertexColorTable extends VertexColorTable {
+
+    private final OffHeapIntArray table;
+
+    public OffHeapDenseVertexColorTable(int n, int maxColor, OffHeapStorage storage) {
+        super(maxColor);
+        this.table = storage.allocateInts((long) n * stride);
+    }
+
+    @Override
+    public int get(int vertex, int color) {
+        return table.get((long) vertex * stride + color) - 1;
+    }
+
+    @Override
+    public void put(int vertex, int color, int value) {
+        table.set((long) vertex * stride + color, value + 1);
+    }
+
+    @Override
+    public void remove(int vertex, int color) {
+        table.set((long) vertex * stride + color, 0);
+    }
+}
+
+// Open addressing hash table in off-heap memory, with a fixed capacity for at most maxEntries entries. Keys are
+// stored plus one, so that the zeroed memory of a new array is empty.
+class OffHeapSparseVertexColorTable extends VertexColorTable {
+
+    private static final long EMPTY = 0;
+
+    private final OffHeapLongArray keys;
+    private final OffHeapIntArray values;
+    private final long mask;
+
+    public OffHeapSparseVertexColorTable(int maxColor, long maxEntries, OffHeapStorage storage) {
+        super(maxColor);
+        long capacity = Long.highestOneBit(Math.max(4, 2 * maxEntries) - 1) << 1;
+        this.keys = storage.allocateLongs(capacity);
+        this.values = storage.allocateInts(capacity);
+        this.mask = capacity - 1;
+    }
+
+    private long slot(long key) {
+        key *= 0x9E3779B97F4A7C15L;
+        return (key ^ (key >>> 32)) & mask;
+    }
+
+    @Override
+    public int get(int vertex, int color) {
+        long key = (long) vertex * stride + color + 1;
+        for (long i = slot(key); keys.get(i) != EMPTY; i = (i + 1) & mask) {
+            if (keys.get(i) == key) {
+                return values.get(i);
+            }
+        }
+        return NONE;
+    }
+
+    @Override
+    public void put(int vertex, int color, int value) {
+        if (value == NONE) {
+            remove(vertex, color);
+            return;
+        }
+        long key = (long) vertex * stride + color + 1;
+        long i = slot(key);
+        while (keys.get(i) != EMPTY && keys.get(i) != key) {
+            i = (i + 1) & mask;
+        }
+        keys.set(i, key);
+        values.set(i, value);
+    }
+
+    @Override
+    public void remove(int vertex, int color) {
+        long key = (long) vertex * stride + color + 1;
+        for (long i = slot(key); keys.get(i) != EMPTY; i = (i + 1) & mask) {
+            if (keys.get(i) == key) {
+                // Backward shift deletion, as in LongIntHashMap
+                long hole = i;
+                for (long j = (i + 1) & mask; keys.get(j) != EMPTY; j = (j + 1) & mask) {
+                    long home = slot(keys.get(j));
+                    if (((j - home) & mask) >= ((j - hole) & mask)) {
+                        keys.set(hole, keys.get(j));
+                        values.set(hole, values.get(j));
+                        hole = j;
+                    }
+                }
+                keys.set(hole, EMPTY);
+                return;
+            }
+        }
+    }
+}
+
+// Open addressing hash map from non-negative long keys to int values, without boxing
+class LongIntHashMap {
+
+    private static final long EMPTY = -1L;
+
+    private long[] keys;
+    private int[] values;
+    private int size;
+    private int mask;
+
+    public LongIntHashMap(int expectedSize) {
+        int capacity = Integer.highestOneBit(Math.max(4, (int) Math.min(1 << 30, 2L * expectedSize)) - 1) << 1;
+        this.keys = new long[capacity];
+        this.values = new int[capacity];
+        this.mask = capacity - 1;
+        Arrays.fill(keys, EMPTY);
+    }
+
+    private static int hash(long key) {
+        key *= 0x9E3779B97F4A7C15L;
+        return (int) (key ^ (key >>> 32));
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public int get(long key, int defaultValue) {
+        int i = hash(key) & mask;
+        while (keys[i] != EMPTY) {
+            if (keys[i] == key) {
+                return values[i];
+            }
+            i = (i + 1) & mask;
+        }
+        return defaultValue;
+    }
+
+    public boolean containsKey(long key) {
+        int i = hash(key) & mask;
+        while (keys[i] != EMPTY) {
+            if (keys[i] == key) {
+                return true;
+            }
+            i = (i + 1) & mask;
+        }
+        return false;
+    }
+
+    public void put(long key, int value) {
+        if (key < 0) {
+            throw new IllegalArgumentException("Keys must be non-negative.");
+        }
+        int i = hash(key) & mask;
+        while (keys[i] != EMPTY) {
+            if (keys[i] == key) {
+                values[i] = value;
+                return;
+            }
+            i = (i + 1) & mask;
+        }
+        keys[i] = key;
+        values[i] = value;
+        if (++size > (keys.length >> 1)) {
+            resize();
+        }
+    }
+
+    public boolean remove(long key) {
+        int i = hash(key) & mask;
+        while (keys[i] != EMPTY) {
+            if (keys[i] == key) {
+                // Backward shift deletion keeps the probe sequences intact without tombstones
+                int hole = i;
+                int j = (i + 1) & mask;
+                while (keys[j] != EMPTY) {
+                    int home = hash(keys[j]) & mask;
+                    if (((j - home) & mask) >= ((j - hole) & mask)) {
+                        keys[hole] = keys[j];
+                        values[hole] = values[j];
+                        hole = j;
+                    }
+                    j = (j + 1) & mask;
+                }
+                keys[hole] = EMPTY;
+                size--;
+                return true;
+            }
+            i = (i + 1) & mask;
+        }
+        return false;
+    }
+
+    private void resize() {
+        long[] oldKeys = keys;
+        int[] oldValues = values;
+        keys = new long[oldKeys.length << 1];
+        values = new int[oldKeys.length << 1];
+        mask = keys.length - 1;
+        Arrays.fill(keys, EMPTY);
+        size = 0;
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldKeys[i] != EMPTY) {
+                put(oldKeys[i], oldValues[i]);
+            }
+        }
+    }
+}
\ No newline at end of file
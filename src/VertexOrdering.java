@@ -0,0 +1,261 @@
+import java.util.Arrays;
+
+// Relabels the vertices of a graph for memory locality before coloring.
+//
+// Alternating paths and fans move from a vertex to its neighbors, so the algorithms touch the adjacency rows and the
+// color tables of neighboring vertices one after the other. When neighbors get nearby ids, those entries share cache
+// lines and pages instead of being spread over the whole graph. The relabeled graph is colored like any other graph,
+// and its coloring is mapped back onto the original edge ids with the permutation kept by the ordering.
+//
+// Usage: VertexOrdering ordering = VertexOrdering.of(graph, VertexOrdering.Strategy.REVERSE_CUTHILL_MCKEE);
+//        EdgeColoring coloring = ordering.color(new Vizing());
+public class VertexOrdering {
+
+    public enum Strategy {
+
+        // Vertices by decreasing degree, so the high degree vertices that most paths cross are packed together
+        DEGREE,
+
+        // Breadth-first search order from the smallest id of each component
+        BFS,
+
+        // Reverse Cuthill-McKee: breadth-first search from a pseudo-peripheral vertex of each component, visiting
+        // neighbors by increasing degree, then reversed. Keeps the ids of neighbors close (a small bandwidth).
+        REVERSE_CUTHILL_MCKEE
+    }
+
+    // Number of breadth-first searches spent looking for a pseudo-peripheral vertex
+    private static final int PERIPHERAL_SEARCHES = 4;
+
+    private final Graph original;
+    private final Graph graph;
+
+    // New id of each original vertex and original id of each new vertex
+    private final int[] newIds;
+    private final int[] oldIds;
+
+    // Edge id in the relabeled graph of each original edge
+    private final int[] edgeIds;
+
+    private VertexOrdering(Graph original, int[] oldIds) {
+
+        this.original = original;
+        this.oldIds = oldIds;
+
+        int n = original.n();
+        this.newIds = new int[n];
+        for (int x = 0; x < n; x++) {
+            newIds[oldIds[x]] = x;
+        }
+
+        int[] offsets = new int[n + 1];
+        for (int x = 0; x < n; x++) {
+            offsets[x + 1] = offsets[x] + original.degree(oldIds[x]);
+        }
+        int[] neighbors = new int[offsets[n]];
+        for (int x = 0; x < n; x++) {
+            int u = oldIds[x];
+            for (int i = 0; i < original.degree(u); i++) {
+                neighbors[offsets[x] + i] = newIds[original.neighbor(u, i)];
+            }
+        }
+        this.graph = Graph.fromAdjacency(n, offsets, neighbors);
+
+        this.edgeIds = new int[original.m()];
+        for (int e = 0; e < edgeIds.length; e++) {
+            edgeIds[e] = graph.findEdge(newIds[original.edgeU(e)], newIds[original.edgeV(e)]);
+        }
+    }
+
+    // Computes the ordering and the relabeled graph
+    public static VertexOrdering of(Graph graph, Strategy strategy) {
+        switch (strategy) {
+            case DEGREE: return new VertexOrdering(graph, degreeOrder(graph));
+            case BFS: return new VertexOrdering(graph, bfsOrder(graph));
+            case REVERSE_CUTHILL_MCKEE: return new VertexOrdering(graph, reverseCuthillMcKee(graph));
+            default: throw new IllegalArgumentException("Unknown vertex ordering " + strategy);
+        }
+    }
+
+    // Get the relabeled graph
+    public Graph getGraph() {
+        return graph;
+    }
+
+    // Get the id in the relabeled graph of an original vertex
+    public int newId(int vertex) {
+        return newIds[vertex];
+    }
+
+    // Get the original id of a vertex of the relabeled graph
+    public int oldId(int vertex) {
+        return oldIds[vertex];
+    }
+
+    // Get the id in the relabeled graph of an original edge
+    public int newEdgeId(int edgeId) {
+        return edgeIds[edgeId];
+    }
+
+    // Colors the relabeled graph with the algorithm and maps the coloring back onto the original graph
+    public EdgeColoring color(EdgeColoringAlgorithm algorithm) {
+        return mapBack(algorithm.color(graph));
+    }
+
+    // Maps a coloring of the relabeled graph onto the original graph, with the same colors on the same edges
+    public EdgeColoring mapBack(EdgeColoring coloring) {
+
+        if (coloring.getGraph() != graph) {
+            throw new IllegalArgumentException("Coloring is not a coloring of the relabeled graph.");
+        }
+
+        EdgeColoring result = new EdgeColoring(original, coloring.maxColor());
+        for (int e = 0; e < edgeIds.length; e++) {
+            int color = coloring.getEdgeColor(edgeIds[e]);
+            if (color != 0 && !result.setEdgeColor(e, color)) {
+                throw new IllegalStateException("Failed to set color " + color + " for edge " + e + ". This should not happen if the coloring is proper.");
+            }
+        }
+        return result;
+    }
+
+    // Vertices sorted by decreasing degree with a counting sort, ties by id
+    static int[] degreeOrder(Graph graph) {
+
+        int n = graph.n();
+        int maxDegree = graph.maxDegree();
+        int[] start = new int[maxDegree + 2];
+        for (int u = 0; u < n; u++) {
+            start[maxDegree - graph.degree(u) + 1]++;
+        }
+        for (int d = 0; d <= maxDegree; d++) {
+            start[d + 1] += start[d];
+        }
+
+        int[] order = new int[n];
+        for (int u = 0; u < n; u++) {
+            order[start[maxDegree - graph.degree(u)]++] = u;
+        }
+        return order;
+    }
+
+    // Breadth-first search order, starting each component at its smallest vertex
+    private static int[] bfsOrder(Graph graph) {
+
+        int n = graph.n();
+        int[] order = new int[n];
+        boolean[] visited = new boolean[n];
+        int tail = 0;
+        for (int s = 0; s < n; s++) {
+            if (visited[s]) {
+                continue;
+            }
+            visited[s] = true;
+            int head = tail;
+            order[tail++] = s;
+            while (head < tail) {
+                int u = order[head++];
+                for (int i = 0; i < graph.degree(u); i++) {
+                    int v = graph.neighbor(u, i);
+                    if (!visited[v]) {
+                        visited[v] = true;
+                        order[tail++] = v;
+                    }
+                }
+            }
+        }
+        return order;
+    }
+
+    // Reverse Cuthill-McKee order, starting the components from their vertices of smallest degree
+    private static int[] reverseCuthillMcKee(Graph graph) {
+
+        int n = graph.n();
+        int[] order = new int[n];
+        boolean[] visited = new boolean[n];
+        int[] byDegree = degreeOrder(graph);
+        int[] level = new int[n];
+        int[] queue = new int[n];
+        long[] buffer = new long[Math.max(1, graph.maxDegree())];
+
+        int tail = 0;
+        for (int k = n - 1; k >= 0; k--) {
+            int s = byDegree[k];
+            if (visited[s]) {
+                continue;
+            }
+            s = pseudoPeripheral(graph, s, level, queue);
+
+            visited[s] = true;
+            int head = tail;
+            order[tail++] = s;
+            while (head < tail) {
+                int u = order[head++];
+
+                // Unvisited neighbors by increasing degree, packed with their degree so a single sort orders them
+                int count = 0;
+                for (int i = 0; i < graph.degree(u); i++) {
+                    int v = graph.neighbor(u, i);
+                    if (!visited[v]) {
+                        visited[v] = true;
+                        buffer[count++] = ((long) graph.degree(v) << 32) | v;
+                    }
+                }
+                Arrays.sort(buffer, 0, count);
+                for (int i = 0; i < count; i++) {
+                    order[tail++] = (int) buffer[i];
+                }
+            }
+        }
+
+        for (int i = 0, j = n - 1; i < j; i++, j--) {
+            int t = order[i];
+            order[i] = order[j];
+            order[j] = t;
+        }
+        return order;
+    }
+
+    // Finds a vertex of large eccentricity in the component of s (George and Liu): repeatedly moves to a vertex of
+    // smallest degree in the last level of a breadth-first search while the number of levels grows
+    private static int pseudoPeripheral(Graph graph, int s, int[] level, int[] queue) {
+
+        int eccentricity = -1;
+        for (int search = 0; search < PERIPHERAL_SEARCHES; search++) {
+
+            // Breadth-first search from s, with level + 1 stored so that 0 means unvisited
+            int head = 0;
+            int tail = 0;
+            queue[tail++] = s;
+            level[s] = 1;
+            while (head < tail) {
+                int u = queue[head++];
+                for (int i = 0; i < graph.degree(u); i++) {
+                    int v = graph.neighbor(u, i);
+                    if (level[v] == 0) {
+                        level[v] = level[u] + 1;
+                        queue[tail++] = v;
+                    }
+                }
+            }
+
+            int last = level[queue[tail - 1]];
+            int next = queue[tail - 1];
+            for (int i = tail - 1; i >= 0 && level[queue[i]] == last; i--) {
+                if (graph.degree(queue[i]) < graph.degree(next)) {
+                    next = queue[i];
+                }
+            }
+            for (int i = 0; i < tail; i++) {
+                level[queue[i]] = 0;
+            }
+
+            if (last <= eccentricity) {
+                break;
+            }
+            eccentricity = last;
+            s = next;
+        }
+        return s;
+    }
+}
\ No newline at end of file
@@ -1,3 +1,4 @@
+import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.HashSet;
@@ -5,85 +6,197 @@ import java.util.List;
 import java.util.Map;
 import java.util.Random;
 import java.util.Set;
+import java.util.SplittableRandom;
 
 public class Vizing implements EdgeColoringAlgorithm {
+
+    // Optional instrumentation, null when disabled
+    private ColoringMetrics metrics;
+
+    // Optional periodic checkpoint of the partial coloring, null when disabled
+    private ColoringCheckpoint checkpoint;
+
+    // Off-heap storage of the colorings, null to store them on the heap
+    private OffHeapStorage storage;
+
+    // Order in which the edges are colored, and the seed of the random orders
+    private EdgeOrder edgeOrder = EdgeOrder.NATURAL;
+    private long edgeOrderSeed;
+
+    // Record the phases, fans and flips of the following runs in metrics (null to disable)
+    public void setMetrics(ColoringMetrics metrics) {
+        this.metrics = metrics;
+    }
+
+    // Save the partial coloring to path at most every intervalMillis during the following runs (null to disable).
+    // A run resumes from the coloring in path if it exists, and deletes the file once it completes.
+    public void setCheckpoint(Path path, long intervalMillis) {
+        this.checkpoint = (path == null) ? null : new ColoringCheckpoint(path, intervalMillis);
+    }
+
+    // Store the colorings of the following runs off-heap in storage (null for the heap)
+    public void setStorage(OffHeapStorage storage) {
+        this.storage = storage;
+    }
+
+    // Color the edges of the following runs in the given order
+    public void setEdgeOrder(EdgeOrder edgeOrder) {
+        setEdgeOrder(edgeOrder, 0);
+    }
+
+    // Color the edges of the following runs in the given order, the random orders are the same for a given seed
+    public void setEdgeOrder(EdgeOrder edgeOrder, long seed) {
+        this.edgeOrder = edgeOrder;
+        this.edgeOrderSeed = seed;
+    }
     
     @Override
+    @SuppressWarnings("try")
     public EdgeColoring color(Graph graph) {
 
         // Compute a Delta coloring for a bipartite graph
         int maxColor = graph.maxDegree() + 1;
 
         // Create an empty edge coloring
-        EdgeColoring coloring = new EdgeColoring(graph, maxColor);
+        EdgeColoring coloring;
+        try (ColoringMetrics.Phase phase = ColoringMetrics.phase(metrics, ColoringMetrics.CONSTRUCTION)) {
+            coloring = (checkpoint != null) ? checkpoint.resume(graph, maxColor, storage) : new EdgeColoring(graph, maxColor, storage);
+            coloring.setMetrics(metrics);
+        }
+
+        EdgeSequence sequence;
+        try (ColoringMetrics.Phase phase = ColoringMetrics.phase(metrics, ColoringMetrics.ORDERING)) {
+            sequence = edgeOrder.sequence(graph, edgeOrderSeed);
+        }
+        if (metrics != null) {
+            metrics.recordEdgeOrder(edgeOrder.name());
+        }
+
+        try (ColoringMetrics.Phase phase = ColoringMetrics.phase(metrics, ColoringMetrics.COLORING)) {
+            colorEdges(coloring, sequence, checkpoint);
+        }
+
+        if (checkpoint != null) {
+            checkpoint.finish();
+        }
+
+        return coloring;
+    }
 
-        HashMap<Integer, Set<Integer>> edges = graph.getEdges();
+    private static void colorEdges(EdgeColoring coloring, EdgeSequence sequence, ColoringCheckpoint checkpoint) {
 
         // Vizing's theorem
-        for (Integer u : edges.keySet()) {
-            for (Integer v : edges.get(u)) {
+        for (int k = 0; k < sequence.edges.length; k++) {
 
-                // Color the edge (u,v)
-                Edge edge = new Edge(u, v);
+            // Every fan is complete between two edges, so the coloring is proper here
+            if (checkpoint != null) {
+                checkpoint.tick(coloring);
+            }
 
-                if (coloring.getEdgeColor(edge) != 0) {
-                    // If the edge is already colored, skip it
-                    continue;
-                }
+            // Color the edge (u,v)
+            int u = sequence.centers[k];
+            int edgeId = sequence.edges[k];
 
-                VizingFan fan = new VizingFan(u, edge, coloring);
-                
-                fan.activate();
+            if (coloring.getEdgeColor(edgeId) != 0) {
+                // If the edge is already colored, skip it
+                continue;
             }
-        }
 
-        return coloring;
+            VizingFan fan = new VizingFan(u, edgeId, coloring);
+
+            fan.activate();
+        }
     }
 }
 
+// Claims exclusive ownership of a vertex, used to activate several fans at the same time on disjoint vertices
+interface VertexClaim {
+
+    // Returns false if the vertex is owned by someone else
+    boolean claim(int vertex);
+}
+
 class VizingFan {
 
     // Store the coloring
     EdgeColoring coloring;
 
+    // If set, every vertex is claimed before its colors are read, and the fan is aborted if a claim fails
+    VertexClaim claim;
+    boolean aborted;
+
+    // If set, the missing colors of the center and the leaves are chosen at random
+    SplittableRandom rand;
+
+    // The uncolored edge of the fan, which changes as the fan is rotated
+    int uncoloredEdge;
+
     // Center vertex of the fan
     int center;
     int primaryColor;
     int secondaryColor;
 
-    // The leaves of the fan
+    // The leaves of the fan, and the ids of the edges joining them to the center
     List<Integer> leaves;
+    List<Integer> leafEdges;
     Map<Integer, Integer> leafToColor;
 
     // Constructs a Vizing fan at the edge 'edge' with center 'center'
     public VizingFan(int center, Edge edge, EdgeColoring coloring) {
+        this(center, coloring.getGraph().findEdge(edge.u(), edge.v()), coloring);
+    }
+
+    // Constructs a Vizing fan at the edge with id 'edgeId' with center 'center'
+    public VizingFan(int center, int edgeId, EdgeColoring coloring) {
+        this(center, edgeId, coloring, null);
+    }
+
+    // Constructs a Vizing fan that claims the vertices it reads before reading them
+    public VizingFan(int center, int edgeId, EdgeColoring coloring, VertexClaim claim) {
+        this(center, edgeId, coloring, claim, null);
+    }
+
+    // Constructs a Vizing fan with random missing colors, if rand is not null
+    public VizingFan(int center, int edgeId, EdgeColoring coloring, VertexClaim claim, SplittableRandom rand) {
 
         this.coloring = coloring;
+        this.claim = claim;
+        this.rand = rand;
+        this.uncoloredEdge = edgeId;
+        Graph graph = coloring.getGraph();
+
+        if (claim != null && edgeId >= 0 && (!claim.claim(center) || !claim.claim(graph.other(edgeId, center)))) {
+            this.aborted = true;
+            return;
+        }
 
-        // Check that edge is uncolored
-        if (coloring.getEdgeColor(edge) != 0) {
+        // Check that edge is in the graph and uncolored
+        if (edgeId < 0 || coloring.getEdgeColor(edgeId) != 0) {
             throw new IllegalArgumentException("Edge must be uncolored to construct a Vizing fan.");
         }
 
         // Check that center is incident to edge
-        if (edge.u() != center && edge.v() != center) {
+        if (graph.edgeU(edgeId) != center && graph.edgeV(edgeId) != center) {
             throw new IllegalArgumentException("Center must be incident to the edge to construct a Vizing fan.");
         }
 
         // Initialize the fan
         this.center = center;
-        this.primaryColor = coloring.getMissingColor(center);
+        this.primaryColor = missingColor(center);
 
         this.leaves = new ArrayList<>();
+        this.leafEdges = new ArrayList<>();
         this.leafToColor = new HashMap<>();
         
         Set<Integer> leafColors = new HashSet<>();
 
-        Integer newLeaf = (edge.u() == center) ? edge.v() : edge.u();
+        int newLeaf = graph.other(edgeId, center);
         this.leaves.add(newLeaf);
+        this.leafEdges.add(edgeId);
 
-        Integer newLeafColor = coloring.getMissingColor(newLeaf);
+        int newLeafColor = missingColor(newLeaf);
         this.leafToColor.put(newLeaf, newLeafColor);
+        leafColors.add(newLeafColor);
 
         boolean fanComplete = false;
 
@@ -92,18 +205,26 @@ class VizingFan {
 
             // Edge newEdge = coloring.getEdgeWithColorAtVertex(center, newLeafColor);
 
-            newLeaf = coloring.getEdgeWithColorAtVertex(center, newLeafColor);
+            int newLeafEdge = coloring.getEdgeIdWithColorAtVertex(center, newLeafColor);
 
-            if (newLeaf == null) {
+            if (newLeafEdge == VertexColorTable.NONE) {
                 fanComplete = true; // The fan is of type I
                 this.primaryColor = newLeafColor;
                 this.secondaryColor = newLeafColor;
+                recordFan();
+                return;
+            }
+
+            newLeaf = graph.other(newLeafEdge, center);
+
+            if (claim != null && !claim.claim(newLeaf)) {
+                this.aborted = true;
                 return;
             }
 
-            newLeafColor = coloring.getMissingColor(newLeaf);
+            newLeafColor = missingColor(newLeaf);
 
-            if (newLeafColor == null) {
+            if (newLeafColor == 0) {
                 throw new IllegalStateException("No missing color found for the vertex " + newLeaf + ". This should not happen if the algorithm is correct.");
             }
 
@@ -113,15 +234,69 @@ class VizingFan {
             }
 
             this.leaves.add(newLeaf);
+            this.leafEdges.add(newLeafEdge);
             this.leafToColor.put(newLeaf, newLeafColor);
             leafColors.add(newLeafColor);
         }
+
+        recordFan();
     }
 
-    // Activate the Vizing fan by constructing a Vizing chain, extending the coloring to an edge
-    public boolean activate() {
+    private void recordFan() {
+        ColoringMetrics metrics = coloring.getMetrics();
+        if (metrics != null) {
+            metrics.recordFan(leaves.size());
+        }
+    }
+
+    private void recordRotations(int count) {
+        ColoringMetrics metrics = coloring.getMetrics();
+        if (metrics != null) {
+            metrics.recordRotations(count);
+        }
+    }
+
+    private int missingColor(int vertex) {
+        return (rand == null) ? coloring.getAnyMissingColor(vertex) : coloring.getRandomMissingColor(vertex, rand);
+    }
+
+    // Get the length of the alternating path that activate() will flip, or -1 if it is longer than limit. Rotating
+    // the fan does not change the edges of the path, so it can be measured before activating.
+    public int getPathLength(int limit) {
+        if (aborted || primaryColor == secondaryColor) {
+            return 0;
+        }
+        return coloring.alternatingPathLength(center, primaryColor, secondaryColor, limit);
+    }
+
+    // Check if a claim failed, in which case the fan left the coloring valid with getUncoloredEdge() uncolored
+    public boolean isAborted() {
+        return aborted;
+    }
+
+    // Get the id of the edge of the fan that is uncolored
+    public int getUncoloredEdge() {
+        return uncoloredEdge;
+    }
+
+    // Claims every vertex of the (primaryColor, secondaryColor)-alternating path starting at the center
+    private boolean claimAlternatingPath() {
+        int current = center;
+        int color = coloring.isMissing(center, primaryColor) ? secondaryColor : primaryColor;
+        int next;
+        while ((next = coloring.getNeighborWithColor(current, color)) != VertexColorTable.NONE) {
+            if (!claim.claim(next)) {
+                return false;
+            }
+            current = next;
+            color = (color == primaryColor) ? secondaryColor : primaryColor;
+        }
+        return true;
+    }
+
+    // Rotate the fan so that the uncolored edge has type (primaryColor, secondaryColor), returns the index of its leaf
+    private int rotateToSecondary() {
 
-        // Rotate the fan so that the uncolored edge has type (primaryColor, secondaryColor)
         Integer currentLeaf = leaves.get(0);
 
         int i = 0;
@@ -134,26 +309,83 @@ class VizingFan {
             }
 
             // Rotate the uncolored edge to the next leaf
-            this.coloring.uncolorEdge(new Edge(center, nextLeaf));
-            this.coloring.setEdgeColor(center, currentLeaf, leafToColor.get(currentLeaf));
+            this.coloring.uncolorEdge(leafEdges.get(i + 1));
+            this.coloring.setEdgeColor(leafEdges.get(i), leafToColor.get(currentLeaf));
 
             currentLeaf = nextLeaf;
             i++;
         }
 
+        uncoloredEdge = leafEdges.get(i);
+        recordRotations(i);
+        return i;
+    }
+
+    // Activate the fan as one step of a multi-step Vizing chain. If the alternating path has more than 'truncateAt'
+    // edges, its edge number 'truncateAt' is uncolored and only the path before it is flipped. A path of exactly
+    // 'truncateAt' edges is flipped whole, which extends the coloring. The path cannot end at a leaf missing
+    // secondaryColor, so the rotated edge then takes secondaryColor. Returns the id of the edge left uncolored, from
+    // which the chain continues with a new fan, or -1 if the coloring was extended.
+    public int activateTruncated(int truncateAt) {
+
+        if (truncateAt < 2) {
+            throw new IllegalArgumentException("A Vizing chain can only be truncated after its first edge.");
+        }
+        if (aborted) {
+            throw new IllegalStateException("Cannot activate an aborted fan.");
+        }
+
+        int pathEdge = (primaryColor == secondaryColor) ? VertexColorTable.NONE : coloring.truncatedPathEdge(center, primaryColor, secondaryColor, truncateAt);
+        if (pathEdge == VertexColorTable.NONE) {
+            if (!activate()) {
+                throw new IllegalStateException("Failed to color edge " + uncoloredEdge + ". This should not happen if the algorithm is correct.");
+            }
+            return VertexColorTable.NONE;
+        }
+
+        // Rotating does not change the path, whose edges have the colors primaryColor and secondaryColor
+        int i = rotateToSecondary();
+        coloring.uncolorEdge(pathEdge);
+        coloring.FlipAlternatingPath(center, primaryColor, secondaryColor);
+
+        if (!coloring.setEdgeColor(leafEdges.get(i), secondaryColor)) {
+            throw new IllegalStateException("Failed to color the fan after truncating its path. This should not happen if the algorithm is correct.");
+        }
+
+        uncoloredEdge = pathEdge;
+        return pathEdge;
+    }
+
+    // Activate the Vizing fan by constructing a Vizing chain, extending the coloring to an edge
+    public boolean activate() {
+
+        if (aborted) {
+            return false;
+        }
+
+        int i = rotateToSecondary();
+        Integer currentLeaf;
+
+        // The path is only read and flipped once all its vertices are owned
+        if (claim != null && primaryColor != secondaryColor && !claimAlternatingPath()) {
+            aborted = true;
+            return false;
+        }
+
         // Flip the alternating path starting from the center vertex
         coloring.FlipAlternatingPath(center, primaryColor, secondaryColor);
 
         // Attempt to color the uncolored edge
-        coloring.setEdgeColor(center, currentLeaf, secondaryColor);
+        coloring.setEdgeColor(leafEdges.get(i), secondaryColor);
 
         // Check if the edge is now colored
-        if (coloring.getEdgeColor(new Edge(center, currentLeaf)) != 0) {
+        if (coloring.getEdgeColor(leafEdges.get(i)) != 0) {
             return true;
         }
 
         // If the edge is still uncolored, the continue the rotation
         int fanSize = leaves.size();
+        recordRotations(fanSize - 1 - i);
         while (i < fanSize - 1) {
 
             currentLeaf = leaves.get(i);
@@ -164,9 +396,9 @@ class VizingFan {
             }
 
             // Rotate the uncolored edge to the next leaf
-            Integer nextEdgeColor = coloring.getEdgeColor(center, nextLeaf);
-            this.coloring.uncolorEdge(center, nextLeaf);
-            this.coloring.setEdgeColor(center, currentLeaf, nextEdgeColor);
+            int nextEdgeColor = coloring.getEdgeColor(leafEdges.get(i + 1));
+            this.coloring.uncolorEdge(leafEdges.get(i + 1));
+            this.coloring.setEdgeColor(leafEdges.get(i), nextEdgeColor);
 
             currentLeaf = nextLeaf;
 
@@ -174,6 +406,6 @@ class VizingFan {
         }
 
         // Color the last edge
-        return this.coloring.setEdgeColor(center, currentLeaf, secondaryColor);
+        return this.coloring.setEdgeColor(leafEdges.get(i), secondaryColor);
     }
 }
\ No newline at end of file
@@ -1,56 +1,95 @@
-import java.util.HashMap;
 import java.util.Random;
-import java.util.Set;
 
 public class VizingBipartite implements EdgeColoringAlgorithm {
+
+    // Optional instrumentation, null when disabled
+    private ColoringMetrics metrics;
+
+    // Order in which the edges are colored, and the seed of the random orders
+    private EdgeOrder edgeOrder = EdgeOrder.NATURAL;
+    private long edgeOrderSeed;
+
+    // Record the phases and flips of the following runs in metrics (null to disable)
+    public void setMetrics(ColoringMetrics metrics) {
+        this.metrics = metrics;
+    }
+
+    // Color the edges of the following runs in the given order
+    public void setEdgeOrder(EdgeOrder edgeOrder) {
+        setEdgeOrder(edgeOrder, 0);
+    }
+
+    // Color the edges of the following runs in the given order, the random orders are the same for a given seed
+    public void setEdgeOrder(EdgeOrder edgeOrder, long seed) {
+        this.edgeOrder = edgeOrder;
+        this.edgeOrderSeed = seed;
+    }
     
     @Override
+    @SuppressWarnings("try")
     public EdgeColoring color(Graph graph) {
 
         // Compute a Delta coloring for a bipartite graph
         int maxColor = graph.maxDegree();
 
         // Create an empty edge coloring
-        EdgeColoring coloring = new EdgeColoring(graph, maxColor);
+        EdgeColoring coloring;
+        try (ColoringMetrics.Phase phase = ColoringMetrics.phase(metrics, ColoringMetrics.CONSTRUCTION)) {
+            coloring = new EdgeColoring(graph, maxColor);
+            coloring.setMetrics(metrics);
+        }
 
-        HashMap<Integer, Set<Integer>> edges = graph.getEdges();
+        EdgeSequence sequence;
+        try (ColoringMetrics.Phase phase = ColoringMetrics.phase(metrics, ColoringMetrics.ORDERING)) {
+            sequence = edgeOrder.sequence(graph, edgeOrderSeed);
+        }
+        if (metrics != null) {
+            metrics.recordEdgeOrder(edgeOrder.name());
+        }
+
+        try (ColoringMetrics.Phase phase = ColoringMetrics.phase(metrics, ColoringMetrics.COLORING)) {
+            colorEdges(graph, coloring, sequence);
+        }
+
+        return coloring;
+    }
+
+    private static void colorEdges(Graph graph, EdgeColoring coloring, EdgeSequence sequence) {
 
         // Vizing's theorem for bipartite graphs
-        for (Integer u : edges.keySet()) {
-            for (Integer v : edges.get(u)) {
+        for (int k = 0; k < sequence.edges.length; k++) {
+            int u = sequence.centers[k];
 
-                // Color the edge (u,v)
-                Edge edge = new Edge(u, v);
+            // Color the edge (u,v)
+            int edgeId = sequence.edges[k];
+            int v = graph.other(edgeId, u);
 
-                if (coloring.getEdgeColor(edge) != 0) {
-                    // If the edge is already colored, skip it
-                    continue;
-                }
+            if (coloring.getEdgeColor(edgeId) != 0) {
+                // If the edge is already colored, skip it
+                continue;
+            }
 
-                Integer c1  = coloring.getMissingColor(u);
-                Integer c2  = coloring.getMissingColor(v);
+            int c1 = coloring.getAnyMissingColor(u);
+            int c2 = coloring.getAnyMissingColor(v);
 
-                if (c1 == null) {
-                    throw new IllegalStateException("No missing color found for the vertex " + u + ". This should not happen if the graph is bipartite and the algorithm is correct.");
-                }
-                if (c2 == null) {
-                    throw new IllegalStateException("No missing color found for the vertex " + v + ". This should not happen if the graph is bipartite and the algorithm is correct.");
-                }
-                if (c1 == c2) {
-                    // If both vertices have the same missing color, color the edge with that color
-                    coloring.setEdgeColor(u, v, c1);
-                }
-                else {
-                    // If they have different missing colors, flip the (c1, c2)-alternating path at v
-                    coloring.FlipAlternatingPath(v, c2, c1);
-                    if (!coloring.isMissing(u, c1) || !coloring.isMissing(v, c1)) {
-                        throw new IllegalStateException("Failed to prime edge by flipping path. This should not happen if the graph is bipartite and the algorithm is correct.");
-                    }
-                    coloring.setEdgeColor(u, v, c1);
+            if (c1 == 0) {
+                throw new IllegalStateException("No missing color found for the vertex " + u + ". This should not happen if the graph is bipartite and the algorithm is correct.");
+            }
+            if (c2 == 0) {
+                throw new IllegalStateException("No missing color found for the vertex " + v + ". This should not happen if the graph is bipartite and the algorithm is correct.");
+            }
+            if (c1 == c2) {
+                // If both vertices have the same missing color, color the edge with that color
+                coloring.setEdgeColor(edgeId, c1);
+            }
+            else {
+                // If they have different missing colors, flip the (c1, c2)-alternating path at v
+                coloring.FlipAlternatingPath(v, c2, c1);
+                if (!coloring.isMissing(u, c1) || !coloring.isMissing(v, c1)) {
+                    throw new IllegalStateException("Failed to prime edge by flipping path. This should not happen if the graph is bipartite and the algorithm is correct.");
                 }
+                coloring.setEdgeColor(edgeId, c1);
             }
         }
-
-        return coloring;
     }
 }